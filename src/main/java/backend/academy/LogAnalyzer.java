@@ -4,27 +4,35 @@ import backend.academy.config.Config;
 import backend.academy.dto.Arguments;
 import backend.academy.dto.LogRecord;
 import backend.academy.dto.LogStatistics;
-import backend.academy.exceptions.FileNotFoundException;
 import backend.academy.exceptions.NoFoundDataException;
-import backend.academy.exceptions.ResourseNotFoundException;
-import backend.academy.utils.LogParser;
+import backend.academy.stats.StatisticsSink;
+import backend.academy.utils.CheckpointStore;
+import backend.academy.utils.FileDiscovery;
+import backend.academy.utils.HttpLogReader;
+import backend.academy.utils.IncrementalLogReader;
+import backend.academy.utils.LogFollower;
+import backend.academy.utils.LogLineHandler;
+import backend.academy.utils.MappedLogReader;
 import backend.academy.utils.ReportFormatter;
-import java.io.BufferedReader;
-import java.io.File;
+import backend.academy.utils.RequestLine;
+import backend.academy.utils.TimeSpanIndex;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.nio.file.Files;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.ZoneOffset;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -39,6 +47,10 @@ public class LogAnalyzer {
                 throw new IllegalArgumentException("Аргументы отсутствуют.");
             }
             Arguments arguments = Arguments.parse(args);
+            if (arguments.follow()) {
+                follow(arguments, stats -> System.out.println(ReportFormatter.format(stats, arguments)));
+                return;
+            }
             LogStatistics stats = loadLogs(arguments);
             String report = ReportFormatter.format(stats, arguments);
             System.out.println(report);
@@ -48,163 +60,138 @@ public class LogAnalyzer {
     }
 
     public LogStatistics loadLogs(Arguments arguments) {
-        if (arguments.path().startsWith("http") || arguments.path().startsWith("https")) {
+        if (isUrl(arguments.path())) {
             return loadLogsFromUrl(arguments);
         } else {
             return loadLogsFromFile(arguments);
         }
     }
 
+    private static boolean isUrl(String path) {
+        return path.startsWith("http://") || path.startsWith("https://");
+    }
+
     public LogStatistics loadLogsFromUrl(Arguments arguments) {
         String[] urls = arguments.path().split("\\|");
         List<String> urlsNames = Arrays.asList(urls);
+        List<URI> urlsList = urlsNames.stream().map(this::createURI).toList();
 
-        try (Stream<String> lines = urlsNames.stream()
-            .map(this::createURL)
-            .flatMap(this::readUrl)) {
-            return getStats(lines, arguments).filesNames(urlsNames);
+        try (ForkJoinPool pool = new ForkJoinPool(arguments.threads())) {
+            HttpLogReader reader = new HttpLogReader(pool);
+            if (arguments.cacheDir() != null) {
+                reader.withCache(Path.of(arguments.cacheDir()));
+            }
+            StatisticsSink sink = reader.read(urlsList, arguments, () -> createSink(arguments));
+            return statistics(sink, arguments).filesNames(urlsNames);
         }
     }
 
-    private URL createURL(String urlPath) {
+    private URI createURI(String urlPath) {
         try {
-            return new URL(urlPath);
-        } catch (MalformedURLException e) {
+            URI uri = new URI(urlPath);
+            if (uri.getHost() == null) {
+                throw new URISyntaxException(urlPath, "нет адреса сервера");
+            }
+            return uri;
+        } catch (URISyntaxException e) {
             throw new IllegalArgumentException("Неверный формат URL: " + urlPath, e);
         }
     }
 
-    private Stream<String> readUrl(URL url) {
-        try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream()));
-            return reader.lines().onClose(() -> closeReader(reader, url));
-        } catch (IOException e) {
-            throw new ResourseNotFoundException("Ресурс по адресу: " + url + " не доступен.");
+    public LogStatistics loadLogsFromFile(Arguments arguments) {
+        FileDiscovery discovery = FileDiscovery.of(Path.of(Config.DIR_PATH), arguments.path());
+        Predicate<Path> selected = timeSpanFilter(arguments);
+        try (ForkJoinPool pool = new ForkJoinPool(arguments.threads())) {
+            MappedLogReader reader = new MappedLogReader(pool, MappedLogReader.DEFAULT_CHUNK_SIZE);
+            if (arguments.checkpoint() != null) {
+                List<Path> paths = discovery.find(pool).stream().filter(selected).toList();
+                CheckpointStore store = new CheckpointStore(Path.of(arguments.checkpoint()));
+                StatisticsSink sink = new IncrementalLogReader(reader, store)
+                    .read(paths, arguments, resourcePart(arguments));
+                return statistics(sink, arguments).filesNames(fileNames(paths));
+            }
+            SortedMap<Path, StatisticsSink> files = reader.read(
+                onFile -> discovery.walk(file -> {
+                    if (selected.test(file)) {
+                        onFile.accept(file);
+                    }
+                }), arguments, () -> createSink(arguments));
+            StatisticsSink sink = createSink(arguments);
+            files.values().forEach(sink::merge);
+            return statistics(sink, arguments).filesNames(fileNames(files.keySet()));
+        } finally {
+            if (selected instanceof TimeSpanFilter filter) {
+                filter.index().save();
+            }
         }
     }
 
-    private void closeReader(BufferedReader reader, URL url) {
-        try {
-            reader.close();
-        } catch (IOException e) {
-            throw new UncheckedIOException("Ошибка при закрытии ресурса: " + url, e);
+    /**
+     * Отбор файлов по интервалу {@code --from/--to}: файлы, записи которых не могут попасть в интервал,
+     * не читаются. Без дат читаются все файлы.
+     */
+    private static Predicate<Path> timeSpanFilter(Arguments arguments) {
+        if (arguments.from() == null && arguments.to() == null) {
+            return file -> true;
         }
+        Path cacheFile = arguments.spanCache() == null ? null : Path.of(arguments.spanCache());
+        return new TimeSpanFilter(new TimeSpanIndex(arguments, cacheFile),
+            arguments.from() == null ? Long.MIN_VALUE : arguments.from().toEpochSecond(ZoneOffset.UTC),
+            arguments.to() == null ? Long.MAX_VALUE : arguments.to().toEpochSecond(ZoneOffset.UTC));
     }
 
-    public LogStatistics loadLogsFromFile(Arguments arguments) {
-        String path = Config.DIR_PATH;
-        String file = "";
-        List<String> filesNames;
-        Stream<String> lines;
-
-        if (arguments.path().contains("**")) {
-            path += arguments.path().substring(0, arguments.path().indexOf("**") - 1);
-            file = arguments.path().substring(arguments.path().indexOf("**") + 3);
-        } else {
-            path += arguments.path().replace("/*", "");
+    /**
+     * Режим {@code --follow}: читает файлы и передает обновленную статистику в {@code reports}
+     * раз в {@code --report-interval} секунд, пока поток не прерван.
+     */
+    public void follow(Arguments arguments, Consumer<LogStatistics> reports) {
+        if (isUrl(arguments.path())) {
+            throw new IllegalArgumentException("Режим --follow поддерживается только для файлов.");
         }
-
-        File folder = new File(path);
-
-        if (!folder.exists()) {
-            throw new FileNotFoundException("Файл(-ы) по пути " + arguments.path() + " не найден(-ы).");
-        }
-
-        if (arguments.path().endsWith("/*") || arguments.path().contains("**")) {
-            List<File> files = findLogFiles(folder, file);
-            filesNames = files.stream().map(File::getName).toList();
-            lines = files.stream().flatMap(this::readFile);
-        } else {
-            filesNames = List.of(folder.getName());
-            lines = readFile(folder);
-        }
-
-        try (lines) {
-            return getStats(lines, arguments).filesNames(filesNames);
+        List<Path> paths;
+        try (ForkJoinPool pool = new ForkJoinPool(arguments.threads())) {
+            paths = FileDiscovery.of(Path.of(Config.DIR_PATH), arguments.path()).find(pool);
         }
-    }
-
-    private List<File> findLogFiles(File folder, String fileName) {
-        List<File> logFiles = new ArrayList<>();
-        File[] files = folder.listFiles();
-
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    logFiles.addAll(findLogFiles(file, fileName));
-                } else if (file.isFile()) {
-                    if (fileName.isBlank() || fileName.equals(file.getName())) {
-                        logFiles.add(file);
-                    }
-                }
-            }
-        }
-
-        return logFiles;
-    }
-
-    private Stream<String> readFile(File file) {
+        List<String> filesNames = fileNames(paths);
+        LogFollower follower = new LogFollower(paths, arguments, createSink(arguments), Config.FOLLOW_POLL_INTERVAL,
+            Duration.ofSeconds(arguments.reportInterval()));
         try {
-            return Files.lines(file.toPath());
+            follower.run(stats -> reports.accept(stats.filesNames(filesNames)));
         } catch (IOException e) {
-            throw new UncheckedIOException("Ошибка при чтении файла: " + file.getPath(), e);
+            throw new UncheckedIOException("Ошибка при чтении файлов: " + arguments.path(), e);
         }
     }
 
+    private static List<String> fileNames(Collection<Path> paths) {
+        return paths.stream().map(path -> path.getFileName().toString()).toList();
+    }
+
     public LogStatistics getStats(Stream<String> lines, Arguments arguments) {
-        LogStatistics stats = new LogStatistics();
-        List<Integer> sizes = new ArrayList<>();
-        AtomicLong totalSize = new AtomicLong(0L);
-        AtomicInteger recordCount = new AtomicInteger(0);
-        List<String> filesNames = new ArrayList<>();
-
-        lines.map(LogParser::parseLine)
-            .filter(Objects::nonNull)
-            .map(logRecord -> applyFilters(logRecord, arguments))
-            .filter(Objects::nonNull)
-            .forEach(logRecord -> {
-                int size = logRecord.bodyBytesSent();
-                sizes.add(size);
-                totalSize.addAndGet(size);
-                recordCount.incrementAndGet();
-                updateStatistics(stats, logRecord);
-            });
-
-        if (recordCount.get() == 0) {
-            throw new NoFoundDataException("Записи с параметрами: " + '\n' + arguments.toString() + " не найдены.");
-        }
+        return getStats(handler -> lines.forEach(line -> {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            handler.onLine(bytes, 0, bytes.length);
+        }), arguments);
+    }
 
-        stats.avgResponseSize((double) totalSize.get() / recordCount.get());
-        stats.responseSizePercentile95(calculatePercentile95(sizes));
-        stats.filesNames(filesNames);
-        return stats;
+    private LogStatistics getStats(Consumer<LogLineHandler> input, Arguments arguments) {
+        StatisticsSink sink = createSink(arguments);
+        input.accept(new LogLineHandler(arguments, sink));
+        return statistics(sink, arguments);
     }
 
-    private double calculatePercentile95(List<Integer> sizes) {
-        Collections.sort(sizes);
-        int index = (int) Math.ceil(0.95 * sizes.size()) - 1;
-        return sizes.get(index);
+    private static StatisticsSink createSink(Arguments arguments) {
+        return StatisticsSink.of(arguments, resourcePart(arguments));
     }
 
-    private void updateStatistics(LogStatistics stats, LogRecord logRecord) {
-        stats.totalRequests(stats.totalRequests() + 1);
-        stats.resources().merge(logRecord.request(), 1L, Long::sum);
-        stats.statuses().merge(logRecord.status(), 1L, Long::sum);
-        stats.ipAddresses().merge(logRecord.remoteAddr(), 1L, Long::sum);
-        stats.countRequestsPerDay().merge(logRecord.timestamp().format(Config.DATE_FORMATTER), 1L, Long::sum);
+    private static int resourcePart(Arguments arguments) {
+        return arguments.groupBy() == null ? RequestLine.REQUEST : RequestLine.partCode(arguments.groupBy());
     }
 
-    private LogRecord applyFilters(LogRecord logRecord, Arguments arguments) {
-        LogRecord recordResponse = logRecord;
-        if (logRecord != null) {
-            if (arguments.from() != null || arguments.to() != null) {
-                recordResponse = filterByDate(logRecord, arguments.from(), arguments.to());
-            }
-            if (arguments.filterField() != null && arguments.filterValue() != null) {
-                recordResponse = filterByField(logRecord, arguments.filterField(), arguments.filterValue());
-            }
+    private static LogStatistics statistics(StatisticsSink sink, Arguments arguments) {
+        if (sink.recordCount() == 0) {
+            throw new NoFoundDataException("Записи с параметрами: " + '\n' + arguments.toString() + " не найдены.");
         }
-        return recordResponse;
+        return sink.statistics(arguments.percentiles());
     }
 
     public LogRecord filterByDate(LogRecord logRecord, LocalDateTime from, LocalDateTime to) {
@@ -222,4 +209,15 @@ public class LogAnalyzer {
         return null;
     }
 
+    private record TimeSpanFilter(TimeSpanIndex index, long from, long to) implements Predicate<Path> {
+
+        @Override
+        public boolean test(Path file) {
+            boolean selected = index.mayContain(file, from, to);
+            if (!selected) {
+                log.debug("Файл {} пропущен: записи вне интервала --from/--to", file);
+            }
+            return selected;
+        }
+    }
 }
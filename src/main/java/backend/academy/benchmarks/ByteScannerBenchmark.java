@@ -0,0 +1,111 @@
+package backend.academy.benchmarks;
+
+import backend.academy.utils.ByteScanner;
+import backend.academy.utils.ByteScanners;
+import backend.academy.utils.LineReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Сравнение побайтового и векторного поиска на синтетическом логе nginx.
+ * Счетчик {@code bytes} выводится JMH как скорость в байтах в секунду.
+ * <p>
+ * Запуск: {@code java --add-modules jdk.incubator.vector -cp <classpath> org.openjdk.jmh.Main ByteScannerBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@SuppressWarnings("MagicNumber")
+public class ByteScannerBenchmark {
+
+    private static final String LINE = "93.180.71.3 - - [17/May/2015:08:05:32 +0000] "
+        + "\"GET /downloads/product_1 HTTP/1.1\" 304 0 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"\n";
+
+    @Param({ByteScanners.SCALAR, ByteScanners.VECTOR})
+    private String scanner;
+
+    @Param("4194304")
+    private int size;
+
+    private ByteScanner byteScanner;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        byteScanner = ByteScanners.byName(scanner);
+        if (ByteScanners.VECTOR.equals(scanner) && ByteScanners.vector() == null) {
+            throw new IllegalStateException("Модуль jdk.incubator.vector не подключен");
+        }
+        byte[] line = LINE.getBytes(StandardCharsets.UTF_8);
+        data = new byte[size];
+        for (int i = 0; i < size; i += line.length) {
+            System.arraycopy(line, 0, data, i, Math.min(line.length, size - i));
+        }
+    }
+
+    @Benchmark
+    public int lineBreaks(Throughput throughput) {
+        int count = 0;
+        for (int i = byteScanner.indexOfAny(data, 0, data.length, (byte) '\n', (byte) '\r');
+             i >= 0;
+             i = byteScanner.indexOfAny(data, i + 1, data.length, (byte) '\n', (byte) '\r')) {
+            count++;
+        }
+        throughput.bytes += data.length;
+        return count;
+    }
+
+    @Benchmark
+    public int quotes(Throughput throughput) {
+        int count = 0;
+        for (int i = byteScanner.indexOf(data, 0, data.length, (byte) '"');
+             i >= 0;
+             i = byteScanner.indexOf(data, i + 1, data.length, (byte) '"')) {
+            count++;
+        }
+        throughput.bytes += data.length;
+        return count;
+    }
+
+    @Benchmark
+    public void readLines(Throughput throughput, Blackhole blackhole) throws IOException {
+        LineReader.read(new ByteArrayInputStream(data), (line, from, to) -> blackhole.consume(to - from),
+            byteScanner);
+        throughput.bytes += data.length;
+    }
+
+    /**
+     * Количество просмотренных байтов; JMH делит его на время измерения.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package backend.academy.config;
 
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 import java.util.regex.Pattern;
@@ -15,12 +16,55 @@ public class Config {
 
     public static final String DESC = "desc";
 
+    public static final String REGEX = "REGEX";
+
+    public static final String BYTES = "BYTES";
+
     public static final Long LIMIT_DEFAULT = 15L;
 
+    public static final double PERCENTILE_DEFAULT = 95.0;
+
+    public static final String IP_BITMAPS_DAY = "day";
+
+    public static final String IP_BITMAPS_RESOURCE = "resource";
+
     public static final Pattern LOG_PATTERN = Pattern.compile(
         "^(\\S+) - (\\S+) \\[(.*?)] \"(.*?)\" (\\d{3}) (\\d+) \"-\" \"(.*?)\""
     );
 
+    public static final String LOG_FORMAT_AUTO = "auto";
+
+    public static final String NGINX_FORMAT = "nginx";
+
+    public static final String NGINX_LAYOUT = "$remote_addr - $remote_user [$time_local] \"$request\" $status "
+        + "$body_bytes_sent \"$http_referer\" \"$http_user_agent\"";
+
+    public static final String APACHE_FORMAT = "apache";
+
+    public static final String APACHE_LAYOUT =
+        "$remote_addr $remote_ident $remote_user [$time_local] \"$request\" $status $body_bytes_sent";
+
+    public static final String JSON_FORMAT = "json";
+
+    public static final String JSON_FIELDS = "remoteAddr=remote_addr,remoteUser=remote_user,timestamp=time_local,"
+        + "timestamp=time_iso8601,request=request,status=status,bodyBytesSent=body_bytes_sent,agent=http_user_agent";
+
+    public static final int FORMAT_SAMPLE_LINES = 32;
+
+    public static final int FORMAT_SAMPLE_BYTES = 64 * 1024;
+
+    public static final Duration HTTP_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    public static final Duration FOLLOW_POLL_INTERVAL = Duration.ofSeconds(1);
+
+    public static final int FOLLOW_TOP_K = 1000;
+
+    public static final long REPORT_INTERVAL_SECONDS = 10;
+
+    public static final long TIME_TOLERANCE_SECONDS = 300;
+
+    public static final Duration PATH_DATE_TOLERANCE = Duration.ofDays(1);
+
     public static final String DIR_PATH = "src/main/java/backend/academy/";
 
     public static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
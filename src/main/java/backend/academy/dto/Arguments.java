@@ -3,6 +3,9 @@ package backend.academy.dto;
 import backend.academy.config.Config;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -10,6 +13,14 @@ import lombok.Setter;
 @Setter
 @SuppressWarnings("ModifiedControlVariable")
 public class Arguments {
+    private static final double MAX_PERCENTILE = 100;
+
+    private static final int MAX_SIGNIFICANT_DIGITS = 5;
+
+    private static final int MIN_HLL_PRECISION = 4;
+
+    private static final int MAX_HLL_PRECISION = 18;
+
     private String path;
 
     private LocalDateTime from;
@@ -24,41 +35,190 @@ public class Arguments {
 
     private String order;
 
+    private String parser;
+
+    private String logFormat;
+
+    private String jsonFields;
+
+    private String groupBy;
+
+    private String cacheDir;
+
+    private String checkpoint;
+
+    private String spanCache;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private boolean follow;
+
+    private long reportInterval = Config.REPORT_INTERVAL_SECONDS;
+
+    private long timeTolerance = Config.TIME_TOLERANCE_SECONDS;
+
+    private List<Double> percentiles = List.of(Config.PERCENTILE_DEFAULT);
+
+    private int sizeHistogram;
+
+    private int hllPrecision;
+
+    private String ipBitmaps;
+
+    private int topK;
+
     public static Arguments parse(String[] args) {
         Arguments arguments = new Arguments();
         for (int i = 0; i < args.length; i++) {
-            switch (args[i].toLowerCase()) {
-                case "--path":
-                    arguments.path = args[++i];
-                    break;
-                case "--from":
-                    arguments.from = LocalDateTime.parse(parseISO(args[++i]), Config.LOG_FORMATTER);
-                    break;
-                case "--to":
-                    arguments.to = LocalDateTime.parse(parseISO(args[++i]), Config.LOG_FORMATTER);
-                    break;
-                case "--format":
-                    arguments.format = args[++i];
-                    break;
-                case "--filter-field":
-                    arguments.filterField = args[++i];
-                    break;
-                case "--filter-value":
-                    arguments.filterValue = args[++i];
-                    break;
-                case "--order":
-                    arguments.order = args[++i];
-                    break;
-                default:
-                    break;
+            String option = args[i].toLowerCase();
+            if ("--follow".equals(option)) {
+                arguments.follow = true;
+            } else if (arguments.option(option, i + 1 < args.length ? args[i + 1] : null)) {
+                i++;
             }
         }
+        if (arguments.follow && arguments.topK == 0) {
+            arguments.topK = Config.FOLLOW_TOP_K;
+        }
         return arguments;
     }
 
-    private static String parseISO(String isoDateTime) {
-        OffsetDateTime offsetDateTime = OffsetDateTime.parse(isoDateTime, Config.ISO_FORMATTER);
-        return offsetDateTime.format(Config.LOG_FORMATTER);
+    /**
+     * Применяет параметр со значением; возвращает {@code false} для неизвестного параметра.
+     */
+    private boolean option(String option, String value) {
+        boolean known = inputOption(option, value) || processingOption(option, value)
+            || statisticsOption(option, value);
+        if (known && value == null) {
+            throw new IllegalArgumentException("Не указано значение параметра " + option);
+        }
+        return known;
+    }
+
+    private boolean inputOption(String option, String value) {
+        switch (option) {
+            case "--path" -> path = value;
+            case "--from" -> from = value == null ? null : parseISO(value);
+            case "--to" -> to = value == null ? null : parseISO(value);
+            case "--format" -> format = value;
+            case "--filter-field" -> filterField = value;
+            case "--filter-value" -> filterValue = value;
+            case "--order" -> order = value;
+            case "--parser" -> parser = value;
+            case "--log-format" -> logFormat = value;
+            case "--json-fields" -> jsonFields = value;
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean processingOption(String option, String value) {
+        switch (option) {
+            case "--group-by" -> groupBy = value;
+            case "--cache-dir" -> cacheDir = value;
+            case "--checkpoint" -> checkpoint = value;
+            case "--span-cache" -> spanCache = value;
+            case "--threads" -> threads = value == null ? threads : parseThreads(value);
+            case "--report-interval" -> reportInterval = value == null ? reportInterval : parseInterval(value);
+            case "--time-tolerance" -> timeTolerance = value == null ? timeTolerance : parseTolerance(value);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean statisticsOption(String option, String value) {
+        switch (option) {
+            case "--percentiles" -> percentiles = value == null ? percentiles : parsePercentiles(value);
+            case "--size-histogram" -> sizeHistogram = value == null ? sizeHistogram : parseDigits(value);
+            case "--hll-precision" -> hllPrecision = value == null ? hllPrecision : parsePrecision(value);
+            case "--ip-bitmaps" -> ipBitmaps = value == null ? null : parseBitmapMode(value);
+            case "--top-k" -> topK = value == null ? topK : parseCapacity(value);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LocalDateTime parseISO(String isoDateTime) {
+        return OffsetDateTime.parse(isoDateTime, Config.ISO_FORMATTER)
+            .withOffsetSameInstant(ZoneOffset.UTC)
+            .toLocalDateTime();
+    }
+
+    private static int parseThreads(String threads) {
+        int value = Integer.parseInt(threads);
+        if (value < 1) {
+            throw new IllegalArgumentException("Число потоков должно быть положительным: " + threads);
+        }
+        return value;
+    }
+
+    private static long parseInterval(String seconds) {
+        long value = Long.parseLong(seconds);
+        if (value < 1) {
+            throw new IllegalArgumentException("Интервал отчетов должен быть положительным: " + seconds);
+        }
+        return value;
+    }
+
+    private static long parseTolerance(String seconds) {
+        long value = Long.parseLong(seconds);
+        if (value < 0) {
+            throw new IllegalArgumentException("Допуск по времени не может быть отрицательным: " + seconds);
+        }
+        return value;
+    }
+
+    private static List<Double> parsePercentiles(String values) {
+        List<Double> parsed = new ArrayList<>();
+        for (String value : values.split(",")) {
+            double percentile = Double.parseDouble(value.trim());
+            if (!(percentile > 0 && percentile <= MAX_PERCENTILE)) {
+                throw new IllegalArgumentException("Перцентиль должен быть больше 0 и не больше 100: " + value);
+            }
+            parsed.add(percentile);
+        }
+        return List.copyOf(parsed);
+    }
+
+    private static int parseDigits(String digits) {
+        int value = Integer.parseInt(digits);
+        if (value < 1 || value > MAX_SIGNIFICANT_DIGITS) {
+            throw new IllegalArgumentException("Число значащих цифр гистограммы должно быть от 1 до "
+                + MAX_SIGNIFICANT_DIGITS + ": " + digits);
+        }
+        return value;
+    }
+
+    private static int parsePrecision(String precision) {
+        int value = Integer.parseInt(precision);
+        if (value < MIN_HLL_PRECISION || value > MAX_HLL_PRECISION) {
+            throw new IllegalArgumentException("Точность HyperLogLog должна быть от " + MIN_HLL_PRECISION
+                + " до " + MAX_HLL_PRECISION + ": " + precision);
+        }
+        return value;
+    }
+
+    private static String parseBitmapMode(String mode) {
+        if (!Config.IP_BITMAPS_DAY.equalsIgnoreCase(mode) && !Config.IP_BITMAPS_RESOURCE.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Режим битовых карт IP-адресов должен быть " + Config.IP_BITMAPS_DAY
+                + " или " + Config.IP_BITMAPS_RESOURCE + ": " + mode);
+        }
+        return mode.toLowerCase();
+    }
+
+    private static int parseCapacity(String capacity) {
+        int value = Integer.parseInt(capacity);
+        if (value < Config.LIMIT_DEFAULT) {
+            throw new IllegalArgumentException("Число счетчиков должно быть не меньше " + Config.LIMIT_DEFAULT
+                + ": " + capacity);
+        }
+        return value;
     }
 
     @Override
@@ -69,6 +229,22 @@ public class Arguments {
             + "format = " + format + '\n'
             + "filterField = " + filterField + '\n'
             + "filterValue = " + filterValue + '\n'
-            + "order = " + order + '\n';
+            + "order = " + order + '\n'
+            + "parser = " + parser + '\n'
+            + "logFormat = " + logFormat + '\n'
+            + "jsonFields = " + jsonFields + '\n'
+            + "groupBy = " + groupBy + '\n'
+            + "cacheDir = " + cacheDir + '\n'
+            + "checkpoint = " + checkpoint + '\n'
+            + "spanCache = " + spanCache + '\n'
+            + "threads = " + threads + '\n'
+            + "follow = " + follow + '\n'
+            + "reportInterval = " + reportInterval + '\n'
+            + "timeTolerance = " + timeTolerance + '\n'
+            + "percentiles = " + percentiles + '\n'
+            + "sizeHistogram = " + sizeHistogram + '\n'
+            + "hllPrecision = " + hllPrecision + '\n'
+            + "ipBitmaps = " + ipBitmaps + '\n'
+            + "topK = " + topK + '\n';
     }
 }
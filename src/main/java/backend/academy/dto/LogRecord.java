@@ -1,5 +1,6 @@
 package backend.academy.dto;
 
+import backend.academy.utils.RequestLine;
 import java.time.LocalDateTime;
 
 public record LogRecord(String remoteAddr,
@@ -13,7 +14,11 @@ public record LogRecord(String remoteAddr,
     public String getFieldValue(String field) {
         return switch (field.toLowerCase()) {
             case "agent" -> agent;
-            case "method" -> request.split(" ")[0];
+            case "method" -> RequestLine.part(request, RequestLine.METHOD);
+            case "path" -> RequestLine.part(request, RequestLine.PATH);
+            case "query" -> RequestLine.part(request, RequestLine.QUERY);
+            case "protocol" -> RequestLine.part(request, RequestLine.PROTOCOL);
+            case "request" -> request;
             case "status" -> String.valueOf(status);
             default -> null;
         };
@@ -0,0 +1,162 @@
+package backend.academy.dto;
+
+import backend.academy.utils.ByteLogParser;
+import backend.academy.utils.ByteSlice;
+import backend.academy.utils.LogEventSink;
+import backend.academy.utils.RequestLine;
+import backend.academy.utils.TimestampDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Легковесная запись лога поверх буфера строки: хранит только границы полей,
+ * а значения декодирует при обращении. Один экземпляр переиспользуется для всех строк.
+ */
+public class LogRecordView {
+
+    public static final int UNKNOWN_FIELD = -1;
+
+    public static final int AGENT_FIELD = 0;
+
+    public static final int METHOD_FIELD = 1;
+
+    public static final int STATUS_FIELD = 2;
+
+    public static final int REQUEST_FIELD = 3;
+
+    public static final int PATH_FIELD = 4;
+
+    public static final int QUERY_FIELD = 5;
+
+    public static final int PROTOCOL_FIELD = 6;
+
+    private final int[] fields = new int[ByteLogParser.FIELDS_LENGTH];
+
+    private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+    private final ByteSlice slice = new ByteSlice();
+
+    private byte[] line;
+
+    public static int fieldCode(String field) {
+        return switch (field.toLowerCase()) {
+            case "agent" -> AGENT_FIELD;
+            case "method" -> METHOD_FIELD;
+            case "status" -> STATUS_FIELD;
+            case "request" -> REQUEST_FIELD;
+            case "path" -> PATH_FIELD;
+            case "query" -> QUERY_FIELD;
+            case "protocol" -> PROTOCOL_FIELD;
+            default -> UNKNOWN_FIELD;
+        };
+    }
+
+    public int[] fields() {
+        return fields;
+    }
+
+    public byte[] line() {
+        return line;
+    }
+
+    public LogRecordView line(byte[] line) {
+        this.line = line;
+        return this;
+    }
+
+    public String remoteAddr() {
+        return decode(ByteLogParser.REMOTE_ADDRESS);
+    }
+
+    public String remoteUser() {
+        return decode(ByteLogParser.REMOTE_USER);
+    }
+
+    public long epochSecond() {
+        return timestampDecoder.decodeEpochSecond(line, fields[ByteLogParser.TIMESTAMP],
+            fields[ByteLogParser.TIMESTAMP + 1]);
+    }
+
+    public LocalDateTime timestamp() {
+        return timestampDecoder.decode(line, fields[ByteLogParser.TIMESTAMP], fields[ByteLogParser.TIMESTAMP + 1]);
+    }
+
+    public String request() {
+        return decode(ByteLogParser.REQUEST);
+    }
+
+    public String method() {
+        return decode(ByteLogParser.REQUEST_PARTS + RequestLine.METHOD);
+    }
+
+    public String path() {
+        return decode(ByteLogParser.REQUEST_PARTS + RequestLine.PATH);
+    }
+
+    public String query() {
+        return decode(ByteLogParser.REQUEST_PARTS + RequestLine.QUERY);
+    }
+
+    public String protocol() {
+        return decode(ByteLogParser.REQUEST_PARTS + RequestLine.PROTOCOL);
+    }
+
+    public int status() {
+        return ByteLogParser.parseDigits(line, fields[ByteLogParser.STATUS], fields[ByteLogParser.STATUS + 1]);
+    }
+
+    public long bodyBytesSent() {
+        return ByteLogParser.parseLong(line, fields[ByteLogParser.BODY_BITES], fields[ByteLogParser.BODY_BITES + 1]);
+    }
+
+    public String agent() {
+        return decode(ByteLogParser.AGENT);
+    }
+
+    /**
+     * Значение поля для фильтрации. ASCII-значения отдаются без копирования через переиспользуемый срез,
+     * поэтому результат действителен только до следующего обращения.
+     */
+    public CharSequence getFieldValue(int fieldCode) {
+        return switch (fieldCode) {
+            case AGENT_FIELD -> sequence(ByteLogParser.AGENT);
+            case METHOD_FIELD -> sequence(ByteLogParser.REQUEST_PARTS + RequestLine.METHOD);
+            case STATUS_FIELD -> sequence(ByteLogParser.STATUS);
+            case REQUEST_FIELD -> sequence(ByteLogParser.REQUEST);
+            case PATH_FIELD -> sequence(ByteLogParser.REQUEST_PARTS + RequestLine.PATH);
+            case QUERY_FIELD -> sequence(ByteLogParser.REQUEST_PARTS + RequestLine.QUERY);
+            case PROTOCOL_FIELD -> sequence(ByteLogParser.REQUEST_PARTS + RequestLine.PROTOCOL);
+            default -> null;
+        };
+    }
+
+    public void emit(LogEventSink sink) {
+        sink.onRecordStart();
+        sink.onAddress(line, fields[ByteLogParser.REMOTE_ADDRESS], fields[ByteLogParser.REMOTE_ADDRESS + 1]);
+        sink.onTimestamp(epochSecond());
+        sink.onRequest(line, fields[ByteLogParser.REQUEST], fields[ByteLogParser.REQUEST + 1]);
+        sink.onStatus(status());
+        sink.onBytes(bodyBytesSent());
+        sink.onAgent(line, fields[ByteLogParser.AGENT], fields[ByteLogParser.AGENT + 1]);
+        sink.onRecordEnd();
+    }
+
+    public LogRecord toRecord() {
+        int bodyBytesSent =
+            ByteLogParser.parseInt(line, fields[ByteLogParser.BODY_BITES], fields[ByteLogParser.BODY_BITES + 1]);
+        return new LogRecord(remoteAddr(), remoteUser(), timestamp(), request(), status(), bodyBytesSent, agent());
+    }
+
+    private CharSequence sequence(int field) {
+        int from = fields[field];
+        int to = fields[field + 1];
+        if (ByteSlice.isAscii(line, from, to)) {
+            return slice.wrap(line, from, to);
+        }
+        return new String(line, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private String decode(int field) {
+        return new String(line, fields[field], fields[field + 1] - fields[field], StandardCharsets.UTF_8);
+    }
+}
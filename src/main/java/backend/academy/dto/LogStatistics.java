@@ -2,6 +2,7 @@ package backend.academy.dto;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Getter;
@@ -18,19 +19,60 @@ public class LogStatistics {
 
     private Map<String, Long> ipAddresses;
 
+    private Map<String, Long> agents;
+
+    private Map<String, Long> resourceErrors;
+
+    private Map<String, Long> ipAddressErrors;
+
+    private Map<String, Long> agentErrors;
+
     private Map<String, Long> countRequestsPerDay;
 
     private double avgResponseSize;
 
     private double responseSizePercentile95;
 
+    private Map<Double, Double> responseSizePercentiles;
+
+    private long minResponseSize;
+
+    private long maxResponseSize;
+
+    private double responseSizeStdDev;
+
+    private long uniqueIpAddresses;
+
+    private long uniqueAgents;
+
+    private Map<String, Long> uniqueIpAddressesPerDay;
+
+    private Map<String, Long> uniqueVisitorsPerResource;
+
+    private long uniqueIpv4Addresses;
+
+    private long ipv4SeenOnAllDays;
+
+    private Map<String, Long> uniqueIpv4PerDay;
+
+    private Map<String, Long> uniqueIpv4PerResource;
+
     private List<String> filesNames;
 
     public LogStatistics() {
         this.resources = new HashMap<>();
         this.statuses = new HashMap<>();
         this.ipAddresses = new HashMap<>();
+        this.agents = new HashMap<>();
+        this.resourceErrors = new HashMap<>();
+        this.ipAddressErrors = new HashMap<>();
+        this.agentErrors = new HashMap<>();
         this.countRequestsPerDay = new HashMap<>();
+        this.responseSizePercentiles = new LinkedHashMap<>();
+        this.uniqueIpAddressesPerDay = new HashMap<>();
+        this.uniqueVisitorsPerResource = new HashMap<>();
+        this.uniqueIpv4PerDay = new HashMap<>();
+        this.uniqueIpv4PerResource = new HashMap<>();
         this.filesNames = new ArrayList<>();
     }
 }
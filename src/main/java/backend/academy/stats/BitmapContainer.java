@@ -0,0 +1,191 @@
+package backend.academy.stats;
+
+import java.util.Arrays;
+
+/**
+ * Контейнер {@link Ipv4Bitmap} для младших 16 бит адресов одного блока /16: отсортированный массив {@code char[]},
+ * пока значений не больше {@link #ARRAY_LIMIT}, затем - битовая карта из 1024 слов {@code long} (8 КБ).
+ * Граница выбрана так, что массив никогда не занимает больше битовой карты.
+ */
+@SuppressWarnings("MagicNumber")
+final class BitmapContainer {
+
+    static final int ARRAY_LIMIT = 4096;
+
+    private static final int WORDS = 1 << 16 >>> 6;
+
+    private static final int INITIAL_LENGTH = 4;
+
+    private char[] values;
+
+    private long[] words;
+
+    private int cardinality;
+
+    BitmapContainer() {
+        this.values = new char[INITIAL_LENGTH];
+    }
+
+    private BitmapContainer(char[] values, long[] words, int cardinality) {
+        this.values = values;
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    void add(char value) {
+        if (words != null) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+        } else {
+            int position = Arrays.binarySearch(values, 0, cardinality, value);
+            if (position < 0) {
+                insert(-position - 1, value);
+            }
+        }
+    }
+
+    boolean contains(char value) {
+        return words != null ? (words[value >>> 6] & 1L << value) != 0
+            : Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    BitmapContainer copy() {
+        return words != null ? new BitmapContainer(null, words.clone(), cardinality)
+            : new BitmapContainer(Arrays.copyOf(values, Math.max(INITIAL_LENGTH, cardinality)), null, cardinality);
+    }
+
+    static BitmapContainer or(BitmapContainer left, BitmapContainer right) {
+        if (left.words == null && right.words == null && left.cardinality + right.cardinality <= ARRAY_LIMIT) {
+            char[] merged = new char[Math.max(INITIAL_LENGTH, left.cardinality + right.cardinality)];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < left.cardinality || j < right.cardinality) {
+                if (j == right.cardinality || i < left.cardinality && left.values[i] < right.values[j]) {
+                    merged[size++] = left.values[i++];
+                } else if (i == left.cardinality || right.values[j] < left.values[i]) {
+                    merged[size++] = right.values[j++];
+                } else {
+                    merged[size++] = left.values[i++];
+                    j++;
+                }
+            }
+            return new BitmapContainer(merged, null, size);
+        }
+        long[] union = left.toWords();
+        long[] other = right.toWords();
+        int cardinality = 0;
+        for (int w = 0; w < WORDS; w++) {
+            union[w] |= other[w];
+            cardinality += Long.bitCount(union[w]);
+        }
+        return new BitmapContainer(null, union, cardinality).optimize();
+    }
+
+    static BitmapContainer and(BitmapContainer left, BitmapContainer right) {
+        if (left.words != null && right.words != null) {
+            long[] intersection = new long[WORDS];
+            int cardinality = 0;
+            for (int w = 0; w < WORDS; w++) {
+                intersection[w] = left.words[w] & right.words[w];
+                cardinality += Long.bitCount(intersection[w]);
+            }
+            return new BitmapContainer(null, intersection, cardinality).optimize();
+        }
+        BitmapContainer small = left.words == null ? left : right;
+        BitmapContainer large = small == left ? right : left;
+        char[] intersection = new char[Math.max(INITIAL_LENGTH, small.cardinality)];
+        int size = 0;
+        for (int i = 0; i < small.cardinality; i++) {
+            if (large.contains(small.values[i])) {
+                intersection[size++] = small.values[i];
+            }
+        }
+        return new BitmapContainer(intersection, null, size);
+    }
+
+    /**
+     * Значения массива для сохранения или {@code null}, если контейнер - битовая карта ({@link #bitmap()}).
+     */
+    short[] array() {
+        if (words != null) {
+            return null;
+        }
+        short[] array = new short[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+            array[i] = (short) values[i];
+        }
+        return array;
+    }
+
+    long[] bitmap() {
+        return words == null ? null : words.clone();
+    }
+
+    static BitmapContainer restore(short[] array, long[] bitmap) {
+        if (bitmap != null) {
+            int cardinality = 0;
+            for (long word : bitmap) {
+                cardinality += Long.bitCount(word);
+            }
+            return new BitmapContainer(null, bitmap.clone(), cardinality);
+        }
+        char[] values = new char[Math.max(INITIAL_LENGTH, array.length)];
+        for (int i = 0; i < array.length; i++) {
+            values[i] = (char) array[i];
+        }
+        return new BitmapContainer(values, null, array.length);
+    }
+
+    private void insert(int position, char value) {
+        if (cardinality == ARRAY_LIMIT) {
+            words = toWords();
+            values = null;
+            add(value);
+        } else {
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, values.length * 2));
+            }
+            System.arraycopy(values, position, values, position + 1, cardinality - position);
+            values[position] = value;
+            cardinality++;
+        }
+    }
+
+    private long[] toWords() {
+        if (words != null) {
+            return words.clone();
+        }
+        long[] bits = new long[WORDS];
+        for (int i = 0; i < cardinality; i++) {
+            bits[values[i] >>> 6] |= 1L << values[i];
+        }
+        return bits;
+    }
+
+    /**
+     * Переводит битовую карту с малым числом значений обратно в массив.
+     */
+    private BitmapContainer optimize() {
+        if (words == null || cardinality > ARRAY_LIMIT) {
+            return this;
+        }
+        char[] array = new char[Math.max(INITIAL_LENGTH, cardinality)];
+        int size = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                array[size++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new BitmapContainer(array, null, size);
+    }
+}
@@ -0,0 +1,100 @@
+package backend.academy.stats;
+
+/**
+ * Скетч частот Count-Min (Cormode, Muthukrishnan): {@code depth} строк по {@code width} счетчиков, значение
+ * увеличивает по одному счетчику в каждой строке. Оценка - минимум этих счетчиков: она никогда не меньше
+ * настоящей частоты и с вероятностью {@code 1 - e^-depth} превышает ее не больше чем на {@code e / width}
+ * от общего числа значений. Скетчи одного размера объединяются сложением. Экземпляр не потокобезопасен.
+ */
+@SuppressWarnings("MagicNumber")
+public class CountMinSketch {
+
+    public static final int DEFAULT_DEPTH = 4;
+
+    private final int width;
+
+    private final long[][] table;
+
+    public CountMinSketch(int width, int depth) {
+        if (Integer.bitCount(width) != 1 || depth < 1) {
+            throw new IllegalArgumentException("Ширина скетча должна быть степенью двойки, глубина - положительной: "
+                + width + "x" + depth);
+        }
+        this.width = width;
+        this.table = new long[depth][width];
+    }
+
+    /**
+     * 64-битный хэш строки: FNV-1a по символам с перемешиванием финализатором MurmurHash3.
+     */
+    public static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+
+    /**
+     * Учитывает значение с хэшем {@code hash} и возвращает новую оценку его частоты.
+     */
+    public long add(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < table.length; row++) {
+            int column = column(hash, row);
+            estimate = Math.min(estimate, ++table[row][column]);
+        }
+        return estimate;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < table.length; row++) {
+            estimate = Math.min(estimate, table[row][column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.width != width || other.table.length != table.length) {
+            throw new IllegalArgumentException("Нельзя объединить скетчи разного размера: " + width + "x"
+                + table.length + " и " + other.width + "x" + other.table.length);
+        }
+        for (int row = 0; row < table.length; row++) {
+            for (int column = 0; column < width; column++) {
+                table[row][column] += other.table[row][column];
+            }
+        }
+        return this;
+    }
+
+    public long[][] state() {
+        long[][] copy = new long[table.length][];
+        for (int row = 0; row < table.length; row++) {
+            copy[row] = table[row].clone();
+        }
+        return copy;
+    }
+
+    public static CountMinSketch restore(long[][] state) {
+        CountMinSketch sketch = new CountMinSketch(state[0].length, state.length);
+        for (int row = 0; row < state.length; row++) {
+            System.arraycopy(state[row], 0, sketch.table[row], 0, sketch.width);
+        }
+        return sketch;
+    }
+
+    /**
+     * Столбец строки {@code row} по двойному хэшированию из двух половин 64-битного хэша.
+     */
+    private int column(long hash, int row) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        return (first + row * second) & (width - 1);
+    }
+}
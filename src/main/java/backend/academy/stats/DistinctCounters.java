@@ -0,0 +1,88 @@
+package backend.academy.stats;
+
+import backend.academy.dto.LogStatistics;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Приблизительное число различных посетителей на счетчиках {@link HyperLogLog}: уникальные IP-адреса всего
+ * и по дням, уникальные User-Agent и уникальные IP-адреса для каждого ресурса. Значения передаются 64-битными
+ * хэшами, поэтому строки для них не создаются. Экземпляр не потокобезопасен.
+ */
+public class DistinctCounters {
+
+    private final int precision;
+
+    private final HyperLogLog addresses;
+
+    private final HyperLogLog agents;
+
+    private final Map<String, HyperLogLog> addressesPerDay = new HashMap<>();
+
+    private final Map<String, HyperLogLog> addressesPerResource = new HashMap<>();
+
+    public DistinctCounters(int precision) {
+        this.precision = precision;
+        this.addresses = new HyperLogLog(precision);
+        this.agents = new HyperLogLog(precision);
+    }
+
+    public void add(long addressHash, long agentHash, String day, String resource) {
+        addresses.add(addressHash);
+        agents.add(agentHash);
+        addressesPerDay.computeIfAbsent(day, key -> new HyperLogLog(precision)).add(addressHash);
+        addressesPerResource.computeIfAbsent(resource, key -> new HyperLogLog(precision)).add(addressHash);
+    }
+
+    public DistinctCounters merge(DistinctCounters other) {
+        addresses.merge(other.addresses);
+        agents.merge(other.agents);
+        mergeCounters(addressesPerDay, other.addressesPerDay);
+        mergeCounters(addressesPerResource, other.addressesPerResource);
+        return this;
+    }
+
+    private void mergeCounters(Map<String, HyperLogLog> target, Map<String, HyperLogLog> source) {
+        source.forEach((key, counter) -> target.computeIfAbsent(key, k -> new HyperLogLog(precision)).merge(counter));
+    }
+
+    public void fill(LogStatistics stats) {
+        stats.uniqueIpAddresses(addresses.estimate());
+        stats.uniqueAgents(agents.estimate());
+        stats.uniqueIpAddressesPerDay().clear();
+        addressesPerDay.forEach((day, counter) -> stats.uniqueIpAddressesPerDay().put(day, counter.estimate()));
+        stats.uniqueVisitorsPerResource().clear();
+        addressesPerResource.forEach((resource, counter) ->
+            stats.uniqueVisitorsPerResource().put(resource, counter.estimate()));
+    }
+
+    public State state() {
+        return new State(precision, addresses.state(), agents.state(), states(addressesPerDay),
+            states(addressesPerResource));
+    }
+
+    public static DistinctCounters restore(State state) {
+        DistinctCounters counters = new DistinctCounters(state.precision());
+        counters.addresses.merge(HyperLogLog.restore(state.addresses()));
+        counters.agents.merge(HyperLogLog.restore(state.agents()));
+        state.addressesPerDay().forEach((day, counter) ->
+            counters.addressesPerDay.put(day, HyperLogLog.restore(counter)));
+        state.addressesPerResource().forEach((resource, counter) ->
+            counters.addressesPerResource.put(resource, HyperLogLog.restore(counter)));
+        return counters;
+    }
+
+    private static Map<String, HyperLogLog.State> states(Map<String, HyperLogLog> counters) {
+        Map<String, HyperLogLog.State> states = new HashMap<>();
+        counters.forEach((key, counter) -> states.put(key, counter.state()));
+        return states;
+    }
+
+    /**
+     * Сохраняемое состояние всех счетчиков.
+     */
+    public record State(int precision, HyperLogLog.State addresses, HyperLogLog.State agents,
+                        Map<String, HyperLogLog.State> addressesPerDay,
+                        Map<String, HyperLogLog.State> addressesPerResource) {
+    }
+}
@@ -0,0 +1,73 @@
+package backend.academy.stats;
+
+import backend.academy.dto.LogStatistics;
+import java.util.Map;
+
+/**
+ * Самые частые ресурсы, IP-адреса и User-Agent в фиксированной памяти на сводках {@link SpaceSaving}
+ * вместо полных словарей частот. В статистику попадают верхние оценки частот и их погрешности.
+ * Экземпляр не потокобезопасен.
+ */
+public class HeavyHitters {
+
+    private final SpaceSaving resources;
+
+    private final SpaceSaving addresses;
+
+    private final SpaceSaving agents;
+
+    public HeavyHitters(int capacity) {
+        this(new SpaceSaving(capacity), new SpaceSaving(capacity), new SpaceSaving(capacity));
+    }
+
+    private HeavyHitters(SpaceSaving resources, SpaceSaving addresses, SpaceSaving agents) {
+        this.resources = resources;
+        this.addresses = addresses;
+        this.agents = agents;
+    }
+
+    public void add(String resource, String address, String agent) {
+        resources.add(resource);
+        addresses.add(address);
+        if (agent != null) {
+            agents.add(agent);
+        }
+    }
+
+    public HeavyHitters merge(HeavyHitters other) {
+        resources.merge(other.resources);
+        addresses.merge(other.addresses);
+        agents.merge(other.agents);
+        return this;
+    }
+
+    public void fill(LogStatistics stats) {
+        fill(resources, stats.resources(), stats.resourceErrors());
+        fill(addresses, stats.ipAddresses(), stats.ipAddressErrors());
+        fill(agents, stats.agents(), stats.agentErrors());
+    }
+
+    private static void fill(SpaceSaving summary, Map<String, Long> counts, Map<String, Long> errors) {
+        counts.clear();
+        errors.clear();
+        summary.top(Integer.MAX_VALUE).forEach(entry -> {
+            counts.put(entry.key(), entry.count());
+            errors.put(entry.key(), entry.error());
+        });
+    }
+
+    public State state() {
+        return new State(resources.state(), addresses.state(), agents.state());
+    }
+
+    public static HeavyHitters restore(State state) {
+        return new HeavyHitters(SpaceSaving.restore(state.resources()), SpaceSaving.restore(state.addresses()),
+            SpaceSaving.restore(state.agents()));
+    }
+
+    /**
+     * Сохраняемое состояние трех сводок.
+     */
+    public record State(SpaceSaving.State resources, SpaceSaving.State addresses, SpaceSaving.State agents) {
+    }
+}
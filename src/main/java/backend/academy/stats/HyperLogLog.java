@@ -0,0 +1,199 @@
+package backend.academy.stats;
+
+import java.util.Arrays;
+
+/**
+ * Счетчик числа различных значений HyperLogLog (Flajolet и др.) по 64-битным хэшам. Старшие {@code p} бит хэша
+ * выбирают регистр, в регистре хранится наибольшая позиция первой единицы в остальных битах. Стандартная ошибка
+ * оценки - {@code 1.04 / sqrt(2^p)}: 0,8% при p = 14. Пока заполнено меньше четверти регистров, они хранятся
+ * разреженно (отсортированный {@code int[]} пар регистр-значение), затем - плотным массивом из {@code 2^p} байт
+ * (16 КБ при p = 14), так что редкие ключи (например, ресурсы) занимают десятки байт. Малые значения
+ * уточняются линейным подсчетом по пустым регистрам. Счетчики с одинаковой точностью объединяются
+ * ({@link #merge}) без потери точности. Экземпляр не потокобезопасен.
+ */
+@SuppressWarnings("MagicNumber")
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+
+    public static final int MAX_PRECISION = 18;
+
+    private static final int VALUE_BITS = 6;
+
+    private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+
+    private static final int INITIAL_SPARSE_LENGTH = 4;
+
+    private final int precision;
+
+    private byte[] registers;
+
+    private int[] sparse = new int[INITIAL_SPARSE_LENGTH];
+
+    private int sparseSize;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точность HyperLogLog должна быть от " + MIN_PRECISION + " до "
+                + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * 64-битный хэш участка буфера: FNV-1a с перемешиванием финализатором MurmurHash3.
+     */
+    public static long hash(byte[] buf, int from, int to) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= buf[i] & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        int value = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+        set(index, value);
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Нельзя объединить счетчики HyperLogLog с разной точностью: "
+                + precision + " и " + other.precision);
+        }
+        if (other.registers != null) {
+            toDense();
+            for (int i = 0; i < registers.length; i++) {
+                registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                set(other.sparse[i] >>> VALUE_BITS, other.sparse[i] & VALUE_MASK);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Оценка числа различных добавленных значений.
+     */
+    public long estimate() {
+        int m = 1 << precision;
+        double sum = 0;
+        int zeros;
+        if (registers == null) {
+            zeros = m - sparseSize;
+            sum += zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += Math.scalb(1.0, -(sparse[i] & VALUE_MASK));
+            }
+        } else {
+            zeros = 0;
+            for (byte register : registers) {
+                sum += Math.scalb(1.0, -register);
+                zeros += register == 0 ? 1 : 0;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public State state() {
+        return registers == null
+            ? new State(precision, Arrays.copyOf(sparse, sparseSize), null)
+            : new State(precision, null, registers.clone());
+    }
+
+    public static HyperLogLog restore(State state) {
+        HyperLogLog counter = new HyperLogLog(state.precision());
+        if (state.registers() != null) {
+            counter.registers = state.registers().clone();
+        } else {
+            counter.sparse = Arrays.copyOf(state.sparse(), Math.max(INITIAL_SPARSE_LENGTH, state.sparse().length));
+            counter.sparseSize = state.sparse().length;
+        }
+        return counter;
+    }
+
+    private void set(int index, int value) {
+        if (registers != null) {
+            registers[index] = (byte) Math.max(registers[index], value);
+        } else {
+            int position = findSparse(index);
+            if (position >= 0) {
+                sparse[position] = index << VALUE_BITS | Math.max(sparse[position] & VALUE_MASK, value);
+            } else if (sparseSize + 1 > (1 << precision) / 4) {
+                toDense();
+                registers[index] = (byte) Math.max(registers[index], value);
+            } else {
+                insertSparse(-position - 1, index << VALUE_BITS | value);
+            }
+        }
+    }
+
+    private void insertSparse(int position, int entry) {
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = entry;
+        sparseSize++;
+    }
+
+    private int findSparse(int index) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int current = sparse[middle] >>> VALUE_BITS;
+            if (current < index) {
+                low = middle + 1;
+            } else if (current > index) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void toDense() {
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> VALUE_BITS] = (byte) (sparse[i] & VALUE_MASK);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /**
+     * Сохраняемое состояние: разреженные пары регистр-значение или плотный массив регистров.
+     */
+    public record State(int precision, int[] sparse, byte[] registers) {
+    }
+}
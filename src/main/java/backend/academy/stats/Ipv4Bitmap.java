@@ -0,0 +1,138 @@
+package backend.academy.stats;
+
+import java.util.Arrays;
+
+/**
+ * Точное множество адресов IPv4 в виде сжатой битовой карты в стиле Roaring: старшие 16 бит адреса выбирают
+ * контейнер ({@link BitmapContainer}), в нем хранятся младшие 16 бит - отсортированным массивом по 2 байта
+ * на адрес или битовой картой в 8 КБ, если адресов в блоке /16 больше 4096. Объединение и пересечение
+ * ({@link #or}, {@link #and}) выполняются по контейнерам без перебора отдельных адресов. Экземпляр
+ * не потокобезопасен.
+ */
+@SuppressWarnings("MagicNumber")
+public class Ipv4Bitmap {
+
+    private static final int INITIAL_LENGTH = 4;
+
+    private char[] keys = new char[INITIAL_LENGTH];
+
+    private BitmapContainer[] containers = new BitmapContainer[INITIAL_LENGTH];
+
+    private int size;
+
+    /**
+     * Добавляет адрес, упакованный в беззнаковое 32-битное число (см. {@code IpAddresses.parseIpv4}).
+     */
+    public void add(int address) {
+        char key = (char) (address >>> 16);
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position < 0) {
+            position = -position - 1;
+            insert(position, key, new BitmapContainer());
+        }
+        containers[position].add((char) address);
+    }
+
+    public boolean contains(int address) {
+        int position = Arrays.binarySearch(keys, 0, size, (char) (address >>> 16));
+        return position >= 0 && containers[position].contains((char) address);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Добавляет все адреса другого множества.
+     */
+    public Ipv4Bitmap merge(Ipv4Bitmap other) {
+        Ipv4Bitmap union = or(this, other);
+        keys = union.keys;
+        containers = union.containers;
+        size = union.size;
+        return this;
+    }
+
+    public static Ipv4Bitmap or(Ipv4Bitmap left, Ipv4Bitmap right) {
+        Ipv4Bitmap union = new Ipv4Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < left.size || j < right.size) {
+            if (j == right.size || i < left.size && left.keys[i] < right.keys[j]) {
+                union.append(left.keys[i], left.containers[i++].copy());
+            } else if (i == left.size || right.keys[j] < left.keys[i]) {
+                union.append(right.keys[j], right.containers[j++].copy());
+            } else {
+                union.append(left.keys[i], BitmapContainer.or(left.containers[i++], right.containers[j++]));
+            }
+        }
+        return union;
+    }
+
+    public static Ipv4Bitmap and(Ipv4Bitmap left, Ipv4Bitmap right) {
+        Ipv4Bitmap intersection = new Ipv4Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            if (left.keys[i] < right.keys[j]) {
+                i++;
+            } else if (right.keys[j] < left.keys[i]) {
+                j++;
+            } else {
+                BitmapContainer container = BitmapContainer.and(left.containers[i], right.containers[j]);
+                if (container.cardinality() > 0) {
+                    intersection.append(left.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return intersection;
+    }
+
+    public State state() {
+        int[] stateKeys = new int[size];
+        short[][] arrays = new short[size][];
+        long[][] bitmaps = new long[size][];
+        for (int i = 0; i < size; i++) {
+            stateKeys[i] = keys[i];
+            arrays[i] = containers[i].array();
+            bitmaps[i] = containers[i].bitmap();
+        }
+        return new State(stateKeys, arrays, bitmaps);
+    }
+
+    public static Ipv4Bitmap restore(State state) {
+        Ipv4Bitmap bitmap = new Ipv4Bitmap();
+        for (int i = 0; i < state.keys().length; i++) {
+            bitmap.append((char) state.keys()[i], BitmapContainer.restore(state.arrays()[i], state.bitmaps()[i]));
+        }
+        return bitmap;
+    }
+
+    private void append(char key, BitmapContainer container) {
+        insert(size, key, container);
+    }
+
+    private void insert(int position, char key, BitmapContainer container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(containers, position, containers, position + 1, size - position);
+        keys[position] = key;
+        containers[position] = container;
+        size++;
+    }
+
+    /**
+     * Сохраняемое состояние: для каждого блока /16 (ключ) - массив младших 16 бит или битовая карта.
+     */
+    public record State(int[] keys, short[][] arrays, long[][] bitmaps) {
+    }
+}
@@ -0,0 +1,104 @@
+package backend.academy.stats;
+
+import backend.academy.dto.LogStatistics;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Точное число уникальных адресов IPv4 на битовых картах {@link Ipv4Bitmap}: всего, по дням и, если включено,
+ * по ресурсам. Адреса передаются упакованными в {@code int}, строки для них не создаются. Множества по дням
+ * доступны для запросов объединения и пересечения, например «адреса, которые были во все дни».
+ * Экземпляр не потокобезопасен.
+ */
+public class Ipv4Counters {
+
+    private final boolean perResource;
+
+    private Ipv4Bitmap addresses = new Ipv4Bitmap();
+
+    private final Map<String, Ipv4Bitmap> addressesPerDay = new HashMap<>();
+
+    private final Map<String, Ipv4Bitmap> addressesPerResource = new HashMap<>();
+
+    public Ipv4Counters(boolean perResource) {
+        this.perResource = perResource;
+    }
+
+    public void add(int address, String day, String resource) {
+        addresses.add(address);
+        addressesPerDay.computeIfAbsent(day, key -> new Ipv4Bitmap()).add(address);
+        if (perResource) {
+            addressesPerResource.computeIfAbsent(resource, key -> new Ipv4Bitmap()).add(address);
+        }
+    }
+
+    public Ipv4Counters merge(Ipv4Counters other) {
+        addresses.merge(other.addresses);
+        mergeBitmaps(addressesPerDay, other.addressesPerDay);
+        mergeBitmaps(addressesPerResource, other.addressesPerResource);
+        return this;
+    }
+
+    private static void mergeBitmaps(Map<String, Ipv4Bitmap> target, Map<String, Ipv4Bitmap> source) {
+        source.forEach((key, bitmap) -> target.computeIfAbsent(key, k -> new Ipv4Bitmap()).merge(bitmap));
+    }
+
+    public Ipv4Bitmap addresses() {
+        return addresses;
+    }
+
+    /**
+     * Адреса за день (ключ дня из статистики) или пустое множество.
+     */
+    public Ipv4Bitmap day(String day) {
+        return addressesPerDay.getOrDefault(day, new Ipv4Bitmap());
+    }
+
+    /**
+     * Адреса, которые встречаются в каждом из перечисленных дней.
+     */
+    public Ipv4Bitmap seenOnAllDays(Collection<String> days) {
+        Ipv4Bitmap result = null;
+        for (String key : days) {
+            result = result == null ? day(key) : Ipv4Bitmap.and(result, day(key));
+        }
+        return result == null ? new Ipv4Bitmap() : result;
+    }
+
+    public void fill(LogStatistics stats) {
+        stats.uniqueIpv4Addresses(addresses.cardinality());
+        stats.uniqueIpv4PerDay().clear();
+        addressesPerDay.forEach((day, bitmap) -> stats.uniqueIpv4PerDay().put(day, bitmap.cardinality()));
+        stats.uniqueIpv4PerResource().clear();
+        addressesPerResource.forEach((resource, bitmap) ->
+            stats.uniqueIpv4PerResource().put(resource, bitmap.cardinality()));
+        stats.ipv4SeenOnAllDays(seenOnAllDays(addressesPerDay.keySet()).cardinality());
+    }
+
+    public State state() {
+        return new State(perResource, addresses.state(), states(addressesPerDay), states(addressesPerResource));
+    }
+
+    public static Ipv4Counters restore(State state) {
+        Ipv4Counters counters = new Ipv4Counters(state.perResource());
+        counters.addresses = Ipv4Bitmap.restore(state.addresses());
+        state.addressesPerDay().forEach((day, bitmap) -> counters.addressesPerDay.put(day, Ipv4Bitmap.restore(bitmap)));
+        state.addressesPerResource().forEach((resource, bitmap) ->
+            counters.addressesPerResource.put(resource, Ipv4Bitmap.restore(bitmap)));
+        return counters;
+    }
+
+    private static Map<String, Ipv4Bitmap.State> states(Map<String, Ipv4Bitmap> bitmaps) {
+        Map<String, Ipv4Bitmap.State> states = new HashMap<>();
+        bitmaps.forEach((key, bitmap) -> states.put(key, bitmap.state()));
+        return states;
+    }
+
+    /**
+     * Сохраняемое состояние всех множеств.
+     */
+    public record State(boolean perResource, Ipv4Bitmap.State addresses, Map<String, Ipv4Bitmap.State> addressesPerDay,
+                        Map<String, Ipv4Bitmap.State> addressesPerResource) {
+    }
+}
@@ -0,0 +1,234 @@
+package backend.academy.stats;
+
+import java.util.Arrays;
+
+/**
+ * Скетч квантилей KLL (Karnin, Lang, Liberty) для целых значений с ограниченной памятью.
+ * Значения хранятся уровнями: элемент уровня h представляет 2^h исходных значений. Переполненный уровень
+ * сортируется, и каждый второй его элемент (со случайным сдвигом) переносится на уровень выше.
+ * Емкость уровней убывает вниз в 2/3 раза от {@code k}, поэтому всего хранится O(k) значений независимо от их числа.
+ * Пока значений не больше {@link #EXACT_CAPACITY}, уровни не сжимаются и квантили точные; дальше ошибка ранга
+ * при k = 200 не превышает примерно 1,65% от числа значений с вероятностью 99%.
+ * Скетчи объединяются ({@link #merge}) с той же оценкой ошибки. Экземпляр не потокобезопасен.
+ */
+@SuppressWarnings("MagicNumber")
+public class KllSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    public static final int EXACT_CAPACITY = 4096;
+
+    private static final double LEVEL_RATIO = 2.0 / 3.0;
+
+    private static final int MIN_LEVEL_CAPACITY = 2;
+
+    private static final int INITIAL_LEVEL_LENGTH = 16;
+
+    /**
+     * Погрешность округления {@code quantile * n}: 99.9 / 100 * 1000 не должно становиться рангом 1000.
+     */
+    private static final double RANK_EPSILON = 1e-9;
+
+    private final int k;
+
+    private long[][] levels = new long[1][INITIAL_LEVEL_LENGTH];
+
+    private int[] sizes = new int[1];
+
+    private int stored;
+
+    private int capacity = EXACT_CAPACITY;
+
+    private long count;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max = Long.MIN_VALUE;
+
+    private long random = 0x9E3779B97F4A7C15L;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("Параметр k скетча должен быть не меньше 2: " + k);
+        }
+        this.k = k;
+    }
+
+    public void add(long value) {
+        append(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        compress();
+    }
+
+    public KllSketch merge(KllSketch other) {
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Значение ранга {@code ceil(quantile * n)} среди n добавленных значений (ближайший ранг), например
+     * {@code quantile(0.95)} - 95-й перцентиль.
+     */
+    public long quantile(double quantile) {
+        return quantiles(quantile)[0];
+    }
+
+    /**
+     * Несколько квантилей за одну сортировку хранимых значений.
+     */
+    public long[] quantiles(double... quantiles) {
+        if (count == 0) {
+            throw new IllegalStateException("Скетч пуст");
+        }
+        long[] items = new long[stored];
+        long[] weights = new long[stored];
+        int index = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                items[index] = levels[level][i];
+                weights[index++] = 1L << level;
+            }
+        }
+        Integer[] order = new Integer[stored];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (left, right) -> Long.compare(items[left], items[right]));
+        long[] result = new long[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            if (quantiles[q] < 0 || quantiles[q] > 1) {
+                throw new IllegalArgumentException("Квантиль должен быть от 0 до 1: " + quantiles[q]);
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * count - RANK_EPSILON));
+            long cumulative = 0;
+            result[q] = max;
+            for (int i : order) {
+                cumulative += weights[i];
+                if (cumulative >= rank) {
+                    result[q] = items[i];
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public State state() {
+        long[][] copy = new long[levels.length][];
+        for (int level = 0; level < levels.length; level++) {
+            copy[level] = Arrays.copyOf(levels[level], sizes[level]);
+        }
+        return new State(k, count, min, max, copy);
+    }
+
+    public static KllSketch restore(State state) {
+        KllSketch sketch = new KllSketch(state.k());
+        sketch.levels = new long[state.levels().length][];
+        sketch.sizes = new int[state.levels().length];
+        for (int level = 0; level < state.levels().length; level++) {
+            sketch.levels[level] = Arrays.copyOf(state.levels()[level],
+                Math.max(INITIAL_LEVEL_LENGTH, state.levels()[level].length));
+            sketch.sizes[level] = state.levels()[level].length;
+            sketch.stored += sketch.sizes[level];
+        }
+        sketch.capacity = capacity(sketch.k, sketch.levels.length);
+        sketch.count = state.count();
+        sketch.min = state.min();
+        sketch.max = state.max();
+        return sketch;
+    }
+
+    private void append(int level, long value) {
+        if (level >= levels.length) {
+            int levelCount = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            for (int added = levelCount; added <= level; added++) {
+                levels[added] = new long[INITIAL_LEVEL_LENGTH];
+            }
+            capacity = capacity(k, levels.length);
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(INITIAL_LEVEL_LENGTH, levels[level].length * 2));
+        }
+        levels[level][sizes[level]++] = value;
+        stored++;
+    }
+
+    private void compress() {
+        while (stored > capacity) {
+            int level = 0;
+            while (sizes[level] < levelCapacity(k, levels.length, level)) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    /**
+     * Сортирует уровень и переносит каждый второй элемент на уровень выше; при нечетном числе элементов
+     * наименьший остается на месте, поэтому сумма весов не меняется.
+     */
+    private void compact(int level) {
+        long[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int start = size & 1;
+        int offset = nextBit();
+        for (int i = start + offset; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        stored -= size - start;
+        sizes[level] = start;
+    }
+
+    private static int capacity(int k, int levelCount) {
+        int capacity = 0;
+        for (int level = 0; level < levelCount; level++) {
+            capacity += levelCapacity(k, levelCount, level);
+        }
+        return Math.max(capacity, EXACT_CAPACITY);
+    }
+
+    private static int levelCapacity(int k, int levelCount, int level) {
+        int depth = levelCount - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(LEVEL_RATIO, depth)));
+    }
+
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+
+    /**
+     * Сохраняемое состояние скетча: элементы каждого уровня.
+     */
+    public record State(int k, long count, long min, long max, long[][] levels) {
+    }
+}
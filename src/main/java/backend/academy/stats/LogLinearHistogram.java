@@ -0,0 +1,195 @@
+package backend.academy.stats;
+
+import java.util.Arrays;
+
+/**
+ * Гистограмма неотрицательных целых значений в стиле HdrHistogram: диапазоны [2^b, 2^(b+1)) делятся на равное
+ * число интервалов, поэтому относительная ошибка значения не больше 10^-d при d значащих цифрах, а значения
+ * меньше {@code 2 * 10^d} хранятся точно. Счетчики лежат в одном массиве {@code long[]}, который растет только
+ * до индекса наибольшего значения: для размеров до 1 МБ при d = 3 это около 11 тысяч счетчиков.
+ * Кроме перцентилей дает точные минимум, максимум, среднее и стандартное отклонение. Гистограммы с одинаковым
+ * числом значащих цифр объединяются ({@link #merge}) и сохраняются ({@link #state()}), например по дням,
+ * чтобы объединять их без повторного чтения логов. Экземпляр не потокобезопасен.
+ */
+@SuppressWarnings("MagicNumber")
+public class LogLinearHistogram {
+
+    public static final int MAX_SIGNIFICANT_DIGITS = 5;
+
+    private static final int INITIAL_BUCKETS = 2;
+
+    private final int significantDigits;
+
+    private final int subBucketHalfCountMagnitude;
+
+    private final int subBucketHalfCount;
+
+    private final long subBucketMask;
+
+    private long[] counts;
+
+    private long count;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max = Long.MIN_VALUE;
+
+    private long sum;
+
+    private double sumOfSquares;
+
+    public LogLinearHistogram(int significantDigits) {
+        if (significantDigits < 1 || significantDigits > MAX_SIGNIFICANT_DIGITS) {
+            throw new IllegalArgumentException("Число значащих цифр гистограммы должно быть от 1 до "
+                + MAX_SIGNIFICANT_DIGITS + ": " + significantDigits);
+        }
+        this.significantDigits = significantDigits;
+        long largestExact = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = Long.SIZE - Long.numberOfLeadingZeros(largestExact - 1);
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = 1 << subBucketHalfCountMagnitude;
+        this.subBucketMask = (1L << subBucketCountMagnitude) - 1;
+        this.counts = new long[(INITIAL_BUCKETS + 1) * subBucketHalfCount];
+    }
+
+    public int significantDigits() {
+        return significantDigits;
+    }
+
+    public void add(long value) {
+        add(value, 1);
+    }
+
+    public void add(long value, long times) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Значение гистограммы не может быть отрицательным: " + value);
+        }
+        int index = index(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + subBucketHalfCount));
+        }
+        counts[index] += times;
+        count += times;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value * times;
+        sumOfSquares += (double) value * value * times;
+    }
+
+    public LogLinearHistogram merge(LogLinearHistogram other) {
+        if (other.significantDigits != significantDigits) {
+            throw new IllegalArgumentException("Нельзя объединить гистограммы с разным числом значащих цифр: "
+                + significantDigits + " и " + other.significantDigits);
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Стандартное отклонение генеральной совокупности.
+     */
+    public double stdDev() {
+        if (count == 0) {
+            return 0;
+        }
+        double mean = mean();
+        return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+    }
+
+    /**
+     * Перцентиль (0 - 100) по ближайшему рангу: наибольшее значение, неотличимое от значения ранга
+     * {@code ceil(percentile / 100 * n)}, но не больше максимума.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            throw new IllegalStateException("Гистограмма пуста");
+        }
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Перцентиль должен быть от 0 до 100: " + percentile);
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count - 1e-9));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.max(min, Math.min(max, highestEquivalentValue(i)));
+            }
+        }
+        return max;
+    }
+
+    public State state() {
+        int length = counts.length;
+        while (length > 0 && counts[length - 1] == 0) {
+            length--;
+        }
+        return new State(significantDigits, count, min, max, sum, sumOfSquares, Arrays.copyOf(counts, length));
+    }
+
+    public static LogLinearHistogram restore(State state) {
+        LogLinearHistogram histogram = new LogLinearHistogram(state.significantDigits());
+        if (state.counts().length > histogram.counts.length) {
+            histogram.counts = Arrays.copyOf(histogram.counts, state.counts().length);
+        }
+        System.arraycopy(state.counts(), 0, histogram.counts, 0, state.counts().length);
+        histogram.count = state.count();
+        histogram.min = state.min();
+        histogram.max = state.max();
+        histogram.sum = state.sum();
+        histogram.sumOfSquares = state.sumOfSquares();
+        return histogram;
+    }
+
+    private int index(long value) {
+        int bucket = Long.SIZE - Long.numberOfLeadingZeros(value | subBucketMask) - (subBucketHalfCountMagnitude + 1);
+        int subBucket = (int) (value >>> bucket);
+        return ((bucket + 1) << subBucketHalfCountMagnitude) + subBucket - subBucketHalfCount;
+    }
+
+    /**
+     * Наибольшее значение, попадающее в счетчик {@code index}.
+     */
+    private long highestEquivalentValue(int index) {
+        int bucket = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucket = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucket < 0) {
+            bucket = 0;
+            subBucket -= subBucketHalfCount;
+        }
+        long lowest = (long) subBucket << bucket;
+        return lowest + (1L << bucket) - 1;
+    }
+
+    /**
+     * Сохраняемое состояние: счетчики до последнего ненулевого и точные суммы.
+     */
+    public record State(int significantDigits, long count, long min, long max, long sum, double sumOfSquares,
+                        long[] counts) {
+    }
+}
@@ -0,0 +1,220 @@
+package backend.academy.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Самые частые значения потока алгоритмом Space-Saving (Metwally и др.) в фиксированной памяти: хранится не больше
+ * {@code capacity} счетчиков, новое значение при заполнении вытесняет значение с наименьшим счетчиком.
+ * Для каждого значения известна верхняя оценка частоты и погрешность: настоящая частота лежит в
+ * {@code [count - error, count]}, а погрешность не больше {@code n / capacity}. Верхняя оценка дополнительно
+ * ограничивается скетчем {@link CountMinSketch}, поэтому редкие значения, вытеснившие частые, не получают
+ * их счетчик целиком. Экземпляры одной емкости объединяются ({@link #merge}) как mergeable summaries
+ * (Agarwal и др.) с сохранением гарантий. Экземпляр не потокобезопасен.
+ */
+public class SpaceSaving {
+
+    /**
+     * Ширина скетча на один счетчик: ошибка оценки скетча - около {@code e / (4 * capacity)} от n.
+     */
+    private static final int SKETCH_WIDTH_PER_COUNTER = 4;
+
+    private final int capacity;
+
+    private final CountMinSketch sketch;
+
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    private final String[] keys;
+
+    private final long[] counts;
+
+    private final long[] errors;
+
+    private int size;
+
+    private long total;
+
+    /**
+     * Верхняя оценка частоты любого значения без счетчика: наибольший вытесненный счетчик.
+     */
+    private long floor;
+
+    public SpaceSaving(int capacity) {
+        this(capacity, new CountMinSketch(sketchWidth(capacity), CountMinSketch.DEFAULT_DEPTH));
+    }
+
+    private SpaceSaving(int capacity, CountMinSketch sketch) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Число счетчиков должно быть положительным: " + capacity);
+        }
+        this.capacity = capacity;
+        this.sketch = sketch;
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    private static int sketchWidth(int capacity) {
+        return Integer.highestOneBit(Math.max(1, capacity * SKETCH_WIDTH_PER_COUNTER - 1)) << 1;
+    }
+
+    public void add(String key) {
+        total++;
+        long estimate = sketch.add(CountMinSketch.hash(key));
+        Integer position = positions.get(key);
+        if (position != null) {
+            long lower = counts[position] - errors[position] + 1;
+            counts[position] = Math.min(counts[position] + 1, estimate);
+            errors[position] = counts[position] - lower;
+            fix(position);
+        } else if (size < capacity) {
+            set(size, key, 1, 0);
+            siftUp(size++);
+        } else {
+            floor = Math.max(floor, counts[0]);
+            positions.remove(keys[0]);
+            long count = Math.min(floor + 1, estimate);
+            set(0, key, count, count - 1);
+            fix(0);
+        }
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Значения с наибольшей верхней оценкой частоты, не больше {@code limit}.
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(keys[i], counts[i], errors[i]));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    /**
+     * Объединяет сводки: для каждого значения складываются верхние и нижние оценки, для значения без счетчика
+     * в одной из сводок берется ее {@code floor}; остаются {@code capacity} значений с наибольшими оценками.
+     */
+    public SpaceSaving merge(SpaceSaving other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("Нельзя объединить сводки разной емкости: " + capacity + " и "
+                + other.capacity);
+        }
+        sketch.merge(other.sketch);
+        Map<String, long[]> bounds = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            bounds.put(keys[i], new long[] {counts[i] + other.floor, counts[i] - errors[i]});
+        }
+        for (int i = 0; i < other.size; i++) {
+            long[] bound = bounds.get(other.keys[i]);
+            long lower = other.counts[i] - other.errors[i];
+            if (bound == null) {
+                bounds.put(other.keys[i], new long[] {other.counts[i] + floor, lower});
+            } else {
+                bound[0] += other.counts[i] - other.floor;
+                bound[1] += lower;
+            }
+        }
+        List<Map.Entry<String, long[]>> merged = new ArrayList<>(bounds.entrySet());
+        merged.forEach(entry -> entry.getValue()[0] =
+            Math.min(entry.getValue()[0], sketch.estimate(CountMinSketch.hash(entry.getKey()))));
+        merged.sort(Comparator.comparingLong(entry -> -entry.getValue()[0]));
+        long mergedFloor = floor + other.floor;
+        for (int i = capacity; i < merged.size(); i++) {
+            mergedFloor = Math.max(mergedFloor, merged.get(i).getValue()[0]);
+        }
+        positions.clear();
+        size = Math.min(capacity, merged.size());
+        for (int i = 0; i < size; i++) {
+            Map.Entry<String, long[]> entry = merged.get(size - 1 - i);
+            set(i, entry.getKey(), entry.getValue()[0], entry.getValue()[0] - entry.getValue()[1]);
+        }
+        floor = mergedFloor;
+        total += other.total;
+        return this;
+    }
+
+    public State state() {
+        return new State(capacity, total, floor, Arrays.copyOf(keys, size), Arrays.copyOf(counts, size),
+            Arrays.copyOf(errors, size), sketch.state());
+    }
+
+    public static SpaceSaving restore(State state) {
+        SpaceSaving summary = new SpaceSaving(state.capacity(), CountMinSketch.restore(state.sketch()));
+        for (int i = 0; i < state.keys().length; i++) {
+            summary.set(i, state.keys()[i], state.counts()[i], state.errors()[i]);
+        }
+        summary.size = state.keys().length;
+        summary.total = state.total();
+        summary.floor = state.floor();
+        return summary;
+    }
+
+    private void set(int position, String key, long count, long error) {
+        keys[position] = key;
+        counts[position] = count;
+        errors[position] = error;
+        positions.put(key, position);
+    }
+
+    /**
+     * Восстанавливает порядок кучи (наименьший счетчик в корне) после изменения счетчика.
+     */
+    private void fix(int position) {
+        siftDown(siftUp(position));
+    }
+
+    private int siftUp(int position) {
+        int current = position;
+        while (current > 0 && counts[(current - 1) / 2] > counts[current]) {
+            swap(current, (current - 1) / 2);
+            current = (current - 1) / 2;
+        }
+        return current;
+    }
+
+    private void siftDown(int position) {
+        int current = position;
+        while (2 * current + 1 < size) {
+            int child = 2 * current + 1;
+            if (child + 1 < size && counts[child + 1] < counts[child]) {
+                child++;
+            }
+            if (counts[current] <= counts[child]) {
+                break;
+            }
+            swap(current, child);
+            current = child;
+        }
+    }
+
+    private void swap(int first, int second) {
+        String key = keys[first];
+        long count = counts[first];
+        long error = errors[first];
+        set(first, keys[second], counts[second], errors[second]);
+        set(second, key, count, error);
+    }
+
+    /**
+     * Значение с верхней оценкой частоты {@code count}; настоящая частота не меньше {@code count - error}.
+     */
+    public record Entry(String key, long count, long error) {
+    }
+
+    /**
+     * Сохраняемое состояние: счетчики в порядке кучи и таблица скетча.
+     */
+    public record State(int capacity, long total, long floor, String[] keys, long[] counts, long[] errors,
+                        long[][] sketch) {
+    }
+}
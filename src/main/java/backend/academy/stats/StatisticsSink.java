@@ -0,0 +1,310 @@
+package backend.academy.stats;
+
+import backend.academy.config.Config;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogStatistics;
+import backend.academy.utils.IpAddresses;
+import backend.academy.utils.LogEventSink;
+import backend.academy.utils.RequestLine;
+import backend.academy.utils.TimestampDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Собирает {@link LogStatistics} напрямую из событий парсера, без промежуточной записи.
+ * Ресурсы группируются по всей строке запроса или по одной ее части ({@link RequestLine}).
+ * Экземпляр не потокобезопасен.
+ */
+@SuppressWarnings("MagicNumber")
+public class StatisticsSink implements LogEventSink {
+
+    private final LogStatistics stats = new LogStatistics();
+
+    private final TimestampDecoder days = new TimestampDecoder();
+
+    private KllSketch sizes = new KllSketch();
+
+    private LogLinearHistogram histogram;
+
+    private DistinctCounters distinct;
+
+    private Ipv4Counters ipv4;
+
+    private HeavyHitters heavyHitters;
+
+    private final int resourcePart;
+
+    private final int[] requestParts = new int[RequestLine.LENGTH];
+
+    private long totalSize;
+
+    private String remoteAddr;
+
+    private String agent;
+
+    private long addressHash;
+
+    private long agentHash;
+
+    private long address;
+
+    private String day;
+
+    private String resource;
+
+    private int status;
+
+    private long bodyBytesSent;
+
+    public StatisticsSink() {
+        this(RequestLine.REQUEST);
+    }
+
+    public StatisticsSink(int resourcePart) {
+        this.resourcePart = resourcePart;
+    }
+
+    /**
+     * Включает гистограмму размеров ответа {@link LogLinearHistogram} с заданным числом значащих цифр
+     * ({@code 0} - без гистограммы): перцентили берутся из нее, в статистику добавляются минимум, максимум
+     * и стандартное отклонение.
+     */
+    public StatisticsSink sizeHistogram(int significantDigits) {
+        histogram = significantDigits == 0 ? null : new LogLinearHistogram(significantDigits);
+        return this;
+    }
+
+    /**
+     * Включает приблизительный подсчет уникальных посетителей {@link DistinctCounters} с точностью
+     * HyperLogLog {@code precision} ({@code 0} - без подсчета).
+     */
+    public StatisticsSink distinctCounters(int precision) {
+        distinct = precision == 0 ? null : new DistinctCounters(precision);
+        return this;
+    }
+
+    /**
+     * Включает точный подсчет уникальных адресов IPv4 {@link Ipv4Counters}: по дням ({@code Config.IP_BITMAPS_DAY})
+     * или по дням и ресурсам ({@code Config.IP_BITMAPS_RESOURCE}); {@code null} - без подсчета.
+     */
+    public StatisticsSink ipv4Counters(String mode) {
+        ipv4 = mode == null ? null : new Ipv4Counters(Config.IP_BITMAPS_RESOURCE.equalsIgnoreCase(mode));
+        return this;
+    }
+
+    /**
+     * Включает режим самых частых значений {@link HeavyHitters} с {@code capacity} счетчиками на ресурсы,
+     * IP-адреса и User-Agent вместо полных словарей частот ({@code 0} - точные словари).
+     */
+    public StatisticsSink heavyHitters(int capacity) {
+        heavyHitters = capacity == 0 ? null : new HeavyHitters(capacity);
+        return this;
+    }
+
+    /**
+     * Экземпляр с гистограммой и счетчиками уникальных посетителей из аргументов запуска.
+     */
+    public static StatisticsSink of(Arguments arguments, int resourcePart) {
+        return new StatisticsSink(resourcePart)
+            .sizeHistogram(arguments.sizeHistogram())
+            .distinctCounters(arguments.hllPrecision())
+            .ipv4Counters(arguments.ipBitmaps())
+            .heavyHitters(arguments.topK());
+    }
+
+    @Override
+    public void onAddress(byte[] line, int from, int to) {
+        remoteAddr = new String(line, from, to - from, StandardCharsets.UTF_8);
+        if (distinct != null) {
+            addressHash = HyperLogLog.hash(line, from, to);
+        }
+        if (ipv4 != null) {
+            address = IpAddresses.parseIpv4(line, from, to);
+        }
+    }
+
+    @Override
+    public void onTimestamp(long epochSecond) {
+        day = days.dayKey(epochSecond);
+    }
+
+    @Override
+    public void onRequest(byte[] line, int from, int to) {
+        if (resourcePart == RequestLine.REQUEST) {
+            resource = new String(line, from, to - from, StandardCharsets.UTF_8);
+        } else {
+            RequestLine.split(line, from, to, requestParts, 0);
+            int partFrom = requestParts[resourcePart];
+            resource = new String(line, partFrom, requestParts[resourcePart + 1] - partFrom, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void onStatus(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public void onBytes(long bodyBytesSent) {
+        this.bodyBytesSent = bodyBytesSent;
+    }
+
+    @Override
+    public void onAgent(byte[] line, int from, int to) {
+        if (distinct != null) {
+            agentHash = HyperLogLog.hash(line, from, to);
+        }
+        if (heavyHitters != null) {
+            agent = new String(line, from, to - from, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void onRecordEnd() {
+        if (histogram == null) {
+            sizes.add(bodyBytesSent);
+        } else {
+            histogram.add(bodyBytesSent);
+        }
+        totalSize += bodyBytesSent;
+        stats.totalRequests(stats.totalRequests() + 1);
+        if (heavyHitters == null) {
+            stats.resources().merge(resource, 1L, Long::sum);
+            stats.ipAddresses().merge(remoteAddr, 1L, Long::sum);
+        } else {
+            heavyHitters.add(resource, remoteAddr, agent);
+            agent = null;
+        }
+        stats.statuses().merge(status, 1L, Long::sum);
+        stats.countRequestsPerDay().merge(day, 1L, Long::sum);
+        if (distinct != null) {
+            distinct.add(addressHash, agentHash, day, resource);
+        }
+        if (ipv4 != null && address >= 0) {
+            ipv4.add((int) address, day, resource);
+        }
+    }
+
+    /**
+     * Добавляет результаты другого экземпляра (например, собранные по другой части файла).
+     */
+    public StatisticsSink merge(StatisticsSink other) {
+        stats.totalRequests(stats.totalRequests() + other.stats.totalRequests());
+        mergeCounts(stats.resources(), other.stats.resources());
+        mergeCounts(stats.statuses(), other.stats.statuses());
+        mergeCounts(stats.ipAddresses(), other.stats.ipAddresses());
+        mergeCounts(stats.countRequestsPerDay(), other.stats.countRequestsPerDay());
+        sizes.merge(other.sizes);
+        if (other.histogram != null) {
+            histogram = histogram == null ? LogLinearHistogram.restore(other.histogram.state())
+                : histogram.merge(other.histogram);
+        }
+        totalSize += other.totalSize;
+        if (other.distinct != null) {
+            distinct = distinct == null ? DistinctCounters.restore(other.distinct.state())
+                : distinct.merge(other.distinct);
+        }
+        if (other.ipv4 != null) {
+            ipv4 = ipv4 == null ? Ipv4Counters.restore(other.ipv4.state()) : ipv4.merge(other.ipv4);
+        }
+        if (other.heavyHitters != null) {
+            heavyHitters = heavyHitters == null ? HeavyHitters.restore(other.heavyHitters.state())
+                : heavyHitters.merge(other.heavyHitters);
+        }
+        return this;
+    }
+
+    private static <K> void mergeCounts(Map<K, Long> target, Map<K, Long> source) {
+        source.forEach((key, count) -> target.merge(key, count, Long::sum));
+    }
+
+    /**
+     * Частичный агрегат для сохранения между запусками (см. {@link #restore}).
+     */
+    public State state() {
+        return new State(stats.totalRequests(),
+            new Counts(stats.resources(), stats.statuses(), stats.ipAddresses(), stats.countRequestsPerDay()),
+            new Sizes(sizes.state(), histogram == null ? null : histogram.state(), totalSize),
+            distinct == null ? null : distinct.state(), ipv4 == null ? null : ipv4.state(),
+            heavyHitters == null ? null : heavyHitters.state());
+    }
+
+    public static StatisticsSink restore(State state, int resourcePart) {
+        StatisticsSink sink = new StatisticsSink(resourcePart);
+        sink.stats.totalRequests(state.totalRequests());
+        sink.stats.resources().putAll(state.counts().resources());
+        sink.stats.statuses().putAll(state.counts().statuses());
+        sink.stats.ipAddresses().putAll(state.counts().ipAddresses());
+        sink.stats.countRequestsPerDay().putAll(state.counts().countRequestsPerDay());
+        sink.sizes = KllSketch.restore(state.sizes().sketch());
+        sink.histogram = state.sizes().histogram() == null ? null
+            : LogLinearHistogram.restore(state.sizes().histogram());
+        sink.totalSize = state.sizes().total();
+        sink.distinct = state.distinct() == null ? null : DistinctCounters.restore(state.distinct());
+        sink.ipv4 = state.ipv4() == null ? null : Ipv4Counters.restore(state.ipv4());
+        sink.heavyHitters = state.heavyHitters() == null ? null : HeavyHitters.restore(state.heavyHitters());
+        return sink;
+    }
+
+    public int recordCount() {
+        return stats.totalRequests();
+    }
+
+    public LogStatistics statistics() {
+        return statistics(List.of(Config.PERCENTILE_DEFAULT));
+    }
+
+    /**
+     * Итоговая статистика с перцентилями размера ответа (в процентах, например 99.9) по скетчу {@link KllSketch}
+     * или по гистограмме, если она включена.
+     */
+    public LogStatistics statistics(List<Double> percentiles) {
+        if (stats.totalRequests() > 0) {
+            stats.avgResponseSize((double) totalSize / stats.totalRequests());
+            stats.responseSizePercentiles().clear();
+            if (histogram == null) {
+                double[] quantiles = percentiles.stream().mapToDouble(percentile -> percentile / 100).toArray();
+                long[] values = sizes.quantiles(quantiles);
+                for (int i = 0; i < values.length; i++) {
+                    stats.responseSizePercentiles().put(percentiles.get(i), (double) values[i]);
+                }
+                stats.responseSizePercentile95(sizes.quantile(Config.PERCENTILE_DEFAULT / 100));
+            } else {
+                percentiles.forEach(percentile ->
+                    stats.responseSizePercentiles().put(percentile, (double) histogram.percentile(percentile)));
+                stats.responseSizePercentile95(histogram.percentile(Config.PERCENTILE_DEFAULT));
+                stats.minResponseSize(histogram.min());
+                stats.maxResponseSize(histogram.max());
+                stats.responseSizeStdDev(histogram.stdDev());
+            }
+            if (distinct != null) {
+                distinct.fill(stats);
+            }
+            if (ipv4 != null) {
+                ipv4.fill(stats);
+            }
+            if (heavyHitters != null) {
+                heavyHitters.fill(stats);
+            }
+        }
+        return stats;
+    }
+
+    public record State(int totalRequests, Counts counts, Sizes sizes, DistinctCounters.State distinct,
+                        Ipv4Counters.State ipv4, HeavyHitters.State heavyHitters) {
+    }
+
+    /**
+     * Сохраняемые точные словари частот (в режиме самых частых значений ресурсы и адреса пусты).
+     */
+    public record Counts(Map<String, Long> resources, Map<Integer, Long> statuses, Map<String, Long> ipAddresses,
+                         Map<String, Long> countRequestsPerDay) {
+    }
+
+    /**
+     * Сохраняемое состояние размеров ответа: скетч, гистограмма (если включена) и сумма.
+     */
+    public record Sizes(KllSketch.State sketch, LogLinearHistogram.State histogram, long total) {
+    }
+}
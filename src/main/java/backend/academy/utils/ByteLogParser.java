@@ -0,0 +1,272 @@
+package backend.academy.utils;
+
+import backend.academy.config.Config;
+import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogRecordView;
+import java.nio.charset.StandardCharsets;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Однопроходный разбор строки лога по байтам без регулярных выражений.
+ * Принимает и отклоняет ровно те же строки, что и {@link Config#LOG_PATTERN}.
+ */
+@UtilityClass
+@SuppressWarnings("MagicNumber")
+public class ByteLogParser {
+
+    public static final int REMOTE_ADDRESS = 0;
+
+    public static final int REMOTE_USER = 2;
+
+    public static final int TIMESTAMP = 4;
+
+    public static final int REQUEST = 6;
+
+    public static final int STATUS = 8;
+
+    public static final int BODY_BITES = 10;
+
+    public static final int AGENT = 12;
+
+    public static final int REQUEST_PARTS = 14;
+
+    public static final int FIELDS_LENGTH = REQUEST_PARTS + RequestLine.LENGTH;
+
+    private static final byte SPACE = ' ';
+
+    private static final byte QUOTE = '"';
+
+    private static final byte DASH = '-';
+
+    private static final byte OPEN_BRACKET = '[';
+
+    private static final byte CLOSE_BRACKET = ']';
+
+    private static final int STATUS_LENGTH = 3;
+
+    private static final int MAX_INT_DIGITS = 10;
+
+    private static final int MAX_LONG_DIGITS = 19;
+
+    private static final ByteScanner SCANNER = ByteScanners.DEFAULT;
+
+    private static final ThreadLocal<LogRecordView> VIEW = ThreadLocal.withInitial(LogRecordView::new);
+
+    public static LogRecord parseLine(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parseLine(bytes, 0, bytes.length);
+    }
+
+    public static LogRecord parseLine(byte[] line, int from, int to) {
+        LogRecordView view = VIEW.get();
+        return tokenize(line, from, to, view) ? view.toRecord() : null;
+    }
+
+    /**
+     * Разбирает строку и передает поля в {@code sink}; для отклоненной строки события не отправляются.
+     */
+    public static boolean parse(byte[] line, int from, int to, LogRecordView view, LogEventSink sink) {
+        if (tokenize(line, from, to, view)) {
+            view.emit(sink);
+            return true;
+        }
+        return false;
+    }
+
+    public static boolean tokenize(byte[] line, int from, int to, LogRecordView view) {
+        if (tokenize(line, from, to, view.fields())) {
+            view.line(line);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Размечает строку: в {@code fields} записываются пары [начало, конец) для каждого поля,
+     * начиная с {@link #REQUEST_PARTS} - для частей строки запроса (см. {@link RequestLine}).
+     * Ленивые группы шаблона перебираются в том же порядке, что и при возврате регулярного выражения.
+     */
+    public static boolean tokenize(byte[] line, int from, int to, int[] fields) {
+        int addrEnd = skipNonWhitespace(line, from, to);
+        if (addrEnd == from || !isSeparator(line, addrEnd, to)) {
+            return false;
+        }
+        int userStart = addrEnd + 3;
+        int userEnd = skipNonWhitespace(line, userStart, to);
+        if (userEnd == userStart || !isAt(line, userEnd, to, SPACE, OPEN_BRACKET)) {
+            return false;
+        }
+        int timeStart = userEnd + 2;
+        int limit = lineTerminator(line, timeStart, to);
+        for (int timeEnd = indexOf(line, timeStart, limit, CLOSE_BRACKET);
+             timeEnd >= 0;
+             timeEnd = indexOf(line, timeEnd + 1, limit, CLOSE_BRACKET)) {
+            if (tokenizeRequest(line, timeEnd + 1, limit, to, fields)) {
+                fields[REMOTE_ADDRESS] = from;
+                fields[REMOTE_ADDRESS + 1] = addrEnd;
+                fields[REMOTE_USER] = userStart;
+                fields[REMOTE_USER + 1] = userEnd;
+                fields[TIMESTAMP] = timeStart;
+                fields[TIMESTAMP + 1] = timeEnd;
+                RequestLine.split(line, fields[REQUEST], fields[REQUEST + 1], fields, REQUEST_PARTS);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean tokenizeRequest(byte[] line, int pos, int limit, int to, int[] fields) {
+        if (!isAt(line, pos, to, SPACE, QUOTE)) {
+            return false;
+        }
+        int requestStart = pos + 2;
+        for (int requestEnd = indexOf(line, requestStart, limit, QUOTE);
+             requestEnd >= 0;
+             requestEnd = indexOf(line, requestEnd + 1, limit, QUOTE)) {
+            if (tokenizeTail(line, requestEnd + 1, limit, to, fields)) {
+                fields[REQUEST] = requestStart;
+                fields[REQUEST + 1] = requestEnd;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean tokenizeTail(byte[] line, int pos, int limit, int to, int[] fields) {
+        int statusStart = pos + 1;
+        int statusEnd = statusStart + STATUS_LENGTH;
+        if (statusEnd >= to || line[pos] != SPACE || skipDigits(line, statusStart, statusEnd) != statusEnd
+            || line[statusEnd] != SPACE) {
+            return false;
+        }
+        int bytesStart = statusEnd + 1;
+        int bytesEnd = skipDigits(line, bytesStart, to);
+        if (bytesEnd == bytesStart || !isEmptyReferer(line, bytesEnd, to)) {
+            return false;
+        }
+        int agentStart = bytesEnd + 6;
+        int agentEnd = indexOf(line, agentStart, limit, QUOTE);
+        if (agentEnd < 0) {
+            return false;
+        }
+        fields[STATUS] = statusStart;
+        fields[STATUS + 1] = statusEnd;
+        fields[BODY_BITES] = bytesStart;
+        fields[BODY_BITES + 1] = bytesEnd;
+        fields[AGENT] = agentStart;
+        fields[AGENT + 1] = agentEnd;
+        return true;
+    }
+
+    public static int parseDigits(byte[] line, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (line[i] - '0');
+        }
+        return value;
+    }
+
+    public static int parseInt(byte[] line, int from, int to) {
+        int start = from;
+        while (start < to - 1 && line[start] == '0') {
+            start++;
+        }
+        long value = 0;
+        if (to - start <= MAX_INT_DIGITS) {
+            for (int i = start; i < to; i++) {
+                value = value * 10 + (line[i] - '0');
+            }
+        }
+        if (to - start > MAX_INT_DIGITS || value > Integer.MAX_VALUE) {
+            throw numberFormatError(line, from, to);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Размер ответа без ограничения int: большие загрузки не переполняют счетчик.
+     */
+    public static long parseLong(byte[] line, int from, int to) {
+        int start = from;
+        while (start < to - 1 && line[start] == '0') {
+            start++;
+        }
+        long value = 0;
+        boolean overflow = to - start > MAX_LONG_DIGITS;
+        for (int i = start; i < to && !overflow; i++) {
+            int digit = line[i] - '0';
+            overflow = value > (Long.MAX_VALUE - digit) / 10;
+            value = value * 10 + digit;
+        }
+        if (overflow) {
+            throw numberFormatError(line, from, to);
+        }
+        return value;
+    }
+
+    private static NumberFormatException numberFormatError(byte[] line, int from, int to) {
+        return new NumberFormatException(
+            "For input string: \"" + new String(line, from, to - from, StandardCharsets.US_ASCII) + "\"");
+    }
+
+    private static boolean isSeparator(byte[] line, int pos, int to) {
+        return pos + 2 < to && line[pos] == SPACE && line[pos + 1] == DASH && line[pos + 2] == SPACE;
+    }
+
+    private static boolean isEmptyReferer(byte[] line, int pos, int to) {
+        return pos + 5 < to
+            && line[pos] == SPACE && line[pos + 1] == QUOTE && line[pos + 2] == DASH
+            && line[pos + 3] == QUOTE && line[pos + 4] == SPACE && line[pos + 5] == QUOTE;
+    }
+
+    private static boolean isAt(byte[] line, int pos, int to, byte first, byte second) {
+        return pos + 1 < to && line[pos] == first && line[pos + 1] == second;
+    }
+
+    private static int skipNonWhitespace(byte[] line, int from, int to) {
+        int i = from;
+        while (i < to && !isWhitespace(line[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipDigits(byte[] line, int from, int to) {
+        int i = from;
+        while (i < to && line[i] >= '0' && line[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(byte[] line, int from, int to, byte value) {
+        return SCANNER.indexOf(line, from, to, value);
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == SPACE || value == '\t' || value == '\n' || value == 0x0B || value == '\f' || value == '\r';
+    }
+
+    /**
+     * Позиция первого символа, который не совпадает с точкой в регулярном выражении:
+     * \n, \r, а также U+0085, U+2028 и U+2029 в кодировке UTF-8.
+     */
+    private static int lineTerminator(byte[] line, int from, int to) {
+        for (int i = SCANNER.indexOfLineBreakOrNonAscii(line, from, to);
+             i >= 0;
+             i = SCANNER.indexOfLineBreakOrNonAscii(line, i + 1, to)) {
+            byte value = line[i];
+            if (value == '\n' || value == '\r') {
+                return i;
+            }
+            if (value == (byte) 0xC2 && i + 1 < to && line[i + 1] == (byte) 0x85) {
+                return i;
+            }
+            if (value == (byte) 0xE2 && i + 2 < to && line[i + 1] == (byte) 0x80
+                && (line[i + 2] == (byte) 0xA8 || line[i + 2] == (byte) 0xA9)) {
+                return i;
+            }
+        }
+        return to;
+    }
+}
@@ -0,0 +1,17 @@
+package backend.academy.utils;
+
+/**
+ * Поиск разделителей в байтовом буфере. Все методы ищут в диапазоне [from, to)
+ * и возвращают позицию первого совпадения или -1.
+ */
+public interface ByteScanner {
+
+    int indexOf(byte[] buf, int from, int to, byte value);
+
+    int indexOfAny(byte[] buf, int from, int to, byte first, byte second);
+
+    /**
+     * Первый байт \n, \r или байт вне ASCII (начало многобайтового символа UTF-8).
+     */
+    int indexOfLineBreakOrNonAscii(byte[] buf, int from, int to);
+}
@@ -0,0 +1,53 @@
+package backend.academy.utils;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Выбор реализации {@link ByteScanner}. Векторная реализация используется, если JVM запущена
+ * с {@code --add-modules jdk.incubator.vector}; иначе, а также при
+ * {@code -Dlog.analyzer.scanner=scalar}, используется побайтовая.
+ */
+@Slf4j
+@UtilityClass
+public class ByteScanners {
+
+    public static final String SCANNER_PROPERTY = "log.analyzer.scanner";
+
+    public static final String SCALAR = "scalar";
+
+    public static final String VECTOR = "vector";
+
+    public static final ByteScanner DEFAULT = byName(System.getProperty(SCANNER_PROPERTY, VECTOR));
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final String VECTOR_SCANNER = "backend.academy.utils.VectorByteScanner";
+
+    public static ByteScanner scalar() {
+        return new ScalarByteScanner();
+    }
+
+    /**
+     * Векторная реализация или {@code null}, если модуль Vector API не подключен.
+     */
+    public static ByteScanner vector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (ByteScanner) Class.forName(VECTOR_SCANNER).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.debug("Vector API недоступен, используется побайтовый поиск", e);
+            return null;
+        }
+    }
+
+    public static ByteScanner byName(String name) {
+        if (SCALAR.equalsIgnoreCase(name)) {
+            return scalar();
+        }
+        ByteScanner vector = vector();
+        return vector == null ? scalar() : vector;
+    }
+}
@@ -0,0 +1,51 @@
+package backend.academy.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Переиспользуемое представление ASCII-участка байтового буфера в виде {@link CharSequence}.
+ */
+public class ByteSlice implements CharSequence {
+
+    private byte[] buffer;
+
+    private int from;
+
+    private int to;
+
+    public ByteSlice wrap(byte[] buffer, int from, int to) {
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public static boolean isAscii(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return to - from;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) buffer[from + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(buffer, from + start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, from, to - from, StandardCharsets.US_ASCII);
+    }
+}
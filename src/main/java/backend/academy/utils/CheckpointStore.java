@@ -0,0 +1,113 @@
+package backend.academy.utils;
+
+import backend.academy.stats.StatisticsSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Файл контрольных точек {@code --checkpoint}: для каждого прочитанного файла хранятся его идентичность
+ * (inode, размер, время изменения и хэш начала файла), смещение конца последней полной строки
+ * и частичная статистика по прочитанной части. Сохраняется в JSON, сжатом gzip, с атомарной заменой.
+ */
+@Slf4j
+public class CheckpointStore {
+
+    public static final int HEAD_LENGTH = 4096;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path file;
+
+    public CheckpointStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Сохраненные точки или пустой список, если файла нет, он поврежден или записан с другими параметрами анализа.
+     */
+    public List<FileCheckpoint> load(String fingerprint) {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            Checkpoint checkpoint = MAPPER.readValue(in, Checkpoint.class);
+            return fingerprint.equals(checkpoint.fingerprint()) ? checkpoint.files() : List.of();
+        } catch (IOException e) {
+            log.debug("Контрольные точки {} не прочитаны, файлы будут прочитаны заново", file, e);
+            return List.of();
+        }
+    }
+
+    public void save(String fingerprint, List<FileCheckpoint> files) {
+        Path directory = file.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                    MAPPER.writeValue(out, new Checkpoint(fingerprint, files));
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка при записи контрольных точек: " + file, e);
+        }
+    }
+
+    public static FileIdentity identify(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        int headLength = (int) Math.min(attributes.size(), HEAD_LENGTH);
+        return new FileIdentity(Objects.toString(attributes.fileKey(), null), attributes.size(),
+            attributes.lastModifiedTime().toMillis(), headLength, headHash(path, headLength));
+    }
+
+    /**
+     * Хэш первых {@code length} байт файла или {@code null}, если файл короче.
+     */
+    public static String headHash(Path path, int length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int read = 0;
+            while (head.hasRemaining() && read >= 0) {
+                read = channel.read(head);
+            }
+        }
+        if (head.hasRemaining()) {
+            return null;
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(head.array()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record FileIdentity(String fileKey, long size, long modified, int headLength, String headHash) {
+    }
+
+    public record FileCheckpoint(String path, FileIdentity identity, long offset, StatisticsSink.State stats) {
+    }
+
+    public record Checkpoint(String fingerprint, List<FileCheckpoint> files) {
+    }
+}
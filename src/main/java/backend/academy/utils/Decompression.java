@@ -0,0 +1,122 @@
+package backend.academy.utils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Прозрачная распаковка входных данных по сигнатуре: gzip (в том числе из нескольких членов, как после
+ * {@code cat a.gz b.gz}) и zip (все файлы архива подряд). Распаковка выполняется в отдельном потоке
+ * через {@link PipelinedInputStream}, параллельно с разбором строк.
+ */
+@UtilityClass
+@SuppressWarnings("MagicNumber")
+public class Decompression {
+
+    public static final int HEADER_LENGTH = 4;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    public enum Format {
+        NONE, GZIP, ZIP
+    }
+
+    public static Format detect(byte[] header, int length) {
+        if (length >= 2 && header[0] == (byte) 0x1F && header[1] == (byte) 0x8B) {
+            return Format.GZIP;
+        }
+        if (length >= HEADER_LENGTH && header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4) {
+            return Format.ZIP;
+        }
+        return Format.NONE;
+    }
+
+    /**
+     * Возвращает поток с распакованными данными или исходные данные, если сигнатура не распознана.
+     */
+    public static InputStream decode(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(HEADER_LENGTH);
+        byte[] header = buffered.readNBytes(HEADER_LENGTH);
+        buffered.reset();
+        return switch (detect(header, header.length)) {
+            case GZIP -> pipelined(new GZIPInputStream(buffered, BUFFER_SIZE));
+            case ZIP -> pipelined(new ZipEntriesInputStream(new ZipInputStream(buffered)));
+            case NONE -> buffered;
+        };
+    }
+
+    private static InputStream pipelined(InputStream decoder) {
+        return new PipelinedInputStream(decoder, "log-decompress-" + THREADS.incrementAndGet());
+    }
+
+    /**
+     * Содержимое всех файлов архива подряд; если файл не заканчивается переводом строки, он добавляется.
+     */
+    private static final class ZipEntriesInputStream extends InputStream {
+
+        private final ZipInputStream zip;
+
+        private boolean inEntry;
+
+        private boolean pendingNewline;
+
+        private int last = '\n';
+
+        ZipEntriesInputStream(ZipInputStream zip) {
+            this.zip = zip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (true) {
+                if (pendingNewline) {
+                    pendingNewline = false;
+                    buffer[offset] = '\n';
+                    last = '\n';
+                    return 1;
+                }
+                if (!inEntry && !nextEntry()) {
+                    return -1;
+                }
+                int count = zip.read(buffer, offset, length);
+                if (count > 0) {
+                    last = buffer[offset + count - 1];
+                    return count;
+                }
+                inEntry = false;
+                pendingNewline = last != '\n' && last != '\r';
+            }
+        }
+
+        private boolean nextEntry() throws IOException {
+            ZipEntry entry = zip.getNextEntry();
+            while (entry != null && entry.isDirectory()) {
+                entry = zip.getNextEntry();
+            }
+            inEntry = entry != null;
+            return inEntry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package backend.academy.utils;
+
+import backend.academy.exceptions.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Поиск файлов по пути с шаблоном glob: {@code logs/2023/app.txt}, {@code logs/2023/*},
+ * {@code logs/**}{@code /access*.log*}, {@code 2024/*}{@code /nginx/*.gz}. Путь делится на каталог без
+ * шаблонов и шаблон относительно него; {@code *} не выходит за пределы каталога, {@code **} - любое число каталогов
+ * (в том числе ноль). Каталоги обходятся параллельно задачами fork/join через {@link DirectoryStream};
+ * каталоги, которые не подходят под начало шаблона, не открываются. Символические ссылки на каталоги не обходятся.
+ */
+public final class FileDiscovery {
+
+    private static final String GLOB = "glob:";
+
+    private static final String ANY_DIRECTORIES = "**";
+
+    private final Path base;
+
+    private final List<PathMatcher> matchers;
+
+    private final List<PathMatcher> directoryMatchers;
+
+    private final int maxDepth;
+
+    private FileDiscovery(Path base, List<PathMatcher> matchers, List<PathMatcher> directoryMatchers, int maxDepth) {
+        this.base = base;
+        this.matchers = matchers;
+        this.directoryMatchers = directoryMatchers;
+        this.maxDepth = maxDepth;
+    }
+
+    public static FileDiscovery of(Path root, String path) {
+        String[] segments = path.split("/");
+        int first = 0;
+        while (first < segments.length && !isPattern(segments[first])) {
+            first++;
+        }
+        Path base = root.resolve(String.join("/", List.of(segments).subList(0, first)));
+        if (first == segments.length) {
+            if (!Files.exists(base)) {
+                throw notFound(path);
+            }
+            return new FileDiscovery(base, List.of(), List.of(), 0);
+        }
+        if (!Files.isDirectory(base)) {
+            throw notFound(path);
+        }
+        FileSystem fileSystem = base.getFileSystem();
+        String pattern = String.join("/", List.of(segments).subList(first, segments.length));
+        List<PathMatcher> matchers = new ArrayList<>();
+        matchers.add(fileSystem.getPathMatcher(GLOB + pattern));
+        if (pattern.startsWith(ANY_DIRECTORIES + "/")) {
+            matchers.add(fileSystem.getPathMatcher(GLOB + pattern.substring(ANY_DIRECTORIES.length() + 1)));
+        }
+        List<PathMatcher> directoryMatchers = new ArrayList<>();
+        int depth = first;
+        while (depth < segments.length - 1 && !segments[depth].contains(ANY_DIRECTORIES)) {
+            String prefix = String.join("/", List.of(segments).subList(first, depth + 1));
+            directoryMatchers.add(fileSystem.getPathMatcher(GLOB + prefix));
+            depth++;
+        }
+        int maxDepth = pattern.contains(ANY_DIRECTORIES) ? Integer.MAX_VALUE : segments.length - first;
+        return new FileDiscovery(base, matchers, directoryMatchers, maxDepth);
+    }
+
+    /**
+     * Передает найденные файлы в {@code onFile} по мере обхода; вызовы идут из разных потоков.
+     * Если метод вызван из задачи {@link ForkJoinPool}, обход выполняется в том же пуле.
+     */
+    public void walk(Consumer<Path> onFile) {
+        if (maxDepth == 0) {
+            onFile.accept(base);
+        } else {
+            new DirectoryTask(base, 0, onFile).invoke();
+        }
+    }
+
+    /**
+     * Все найденные файлы, отсортированные по пути.
+     */
+    public List<Path> find(ForkJoinPool pool) {
+        List<Path> files = Collections.synchronizedList(new ArrayList<>());
+        pool.invoke(ForkJoinTask.adapt(() -> walk(files::add)));
+        List<Path> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private boolean matches(Path relative) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean mayContainMatches(Path relative, int depth) {
+        return depth > directoryMatchers.size() || directoryMatchers.get(depth - 1).matches(relative);
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.contains("*") || segment.contains("?") || segment.contains("[") || segment.contains("{");
+    }
+
+    private static FileNotFoundException notFound(String path) {
+        return new FileNotFoundException("Файл(-ы) по пути " + path + " не найден(-ы).");
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+
+        private final transient Path directory;
+
+        private final int depth;
+
+        private final transient Consumer<Path> onFile;
+
+        DirectoryTask(Path directory, int depth, Consumer<Path> onFile) {
+            this.directory = directory;
+            this.depth = depth;
+            this.onFile = onFile;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes =
+                        Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    Path relative = base.relativize(entry);
+                    if (attributes.isDirectory()) {
+                        if (depth + 1 < maxDepth && mayContainMatches(relative, depth + 1)) {
+                            DirectoryTask task = new DirectoryTask(entry, depth + 1, onFile);
+                            task.fork();
+                            subdirectories.add(task);
+                        }
+                    } else if ((attributes.isRegularFile() || Files.isRegularFile(entry)) && matches(relative)) {
+                        onFile.accept(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка при чтении каталога: " + directory, e);
+            }
+            subdirectories.forEach(ForkJoinTask::join);
+        }
+    }
+}
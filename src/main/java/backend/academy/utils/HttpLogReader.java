@@ -0,0 +1,225 @@
+package backend.academy.utils;
+
+import backend.academy.config.Config;
+import backend.academy.dto.Arguments;
+import backend.academy.exceptions.ResourseNotFoundException;
+import backend.academy.stats.StatisticsSink;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Загрузка логов по HTTP через {@link HttpClient}: несколько адресов скачиваются одновременно
+ * (не больше параллелизма пула; ожидание в {@link HttpClient#send} может добавлять потоки в пул,
+ * поэтому число загрузок ограничено отдельно семафором), поддерживаются HTTP/2 и {@code Content-Encoding: gzip}.
+ * Тело ответа читается потоком байтов прямо в {@link LineReader}, без строк на каждую строку лога;
+ * у каждого адреса своя частичная статистика, они объединяются в порядке адресов.
+ * Если сервер поддерживает запросы {@code Range}, файл делится на диапазоны по {@code rangeSize} байт,
+ * которые загружаются и разбираются параллельно и при сбое докачиваются с места обрыва ({@link RangeInputStream}).
+ */
+public class HttpLogReader {
+
+    public static final long DEFAULT_RANGE_SIZE = 16L * 1024 * 1024;
+
+    private static final int SUCCESS = 200;
+
+    private static final int PARTIAL_CONTENT = 206;
+
+    private static final int REDIRECT = 300;
+
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    private static final String RANGE = "Range";
+
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    private static final String GZIP = "gzip";
+
+    private static final String READ_ERROR = "Ошибка при чтении ресурса: ";
+
+    private final HttpClient client;
+
+    private final ForkJoinPool pool;
+
+    private final long rangeSize;
+
+    private final Semaphore downloads;
+
+    private UrlCache cache;
+
+    public HttpLogReader(ForkJoinPool pool) {
+        this(HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Config.HTTP_CONNECT_TIMEOUT)
+            .build(), pool, DEFAULT_RANGE_SIZE);
+    }
+
+    public HttpLogReader(HttpClient client, ForkJoinPool pool, long rangeSize) {
+        this.client = client;
+        this.pool = pool;
+        this.rangeSize = rangeSize;
+        this.downloads = new Semaphore(pool.getParallelism());
+    }
+
+    /**
+     * Включает дисковый кэш {@link UrlCache} в {@code directory}; с кэшем каждый адрес читается одним потоком.
+     */
+    public HttpLogReader withCache(Path directory) {
+        this.cache = new UrlCache(directory, client);
+        return this;
+    }
+
+    public StatisticsSink read(List<URI> urls, Arguments arguments, Supplier<StatisticsSink> sinks) {
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            List<ForkJoinTask<StatisticsSink>> tasks = urls.stream()
+                .map(url -> ForkJoinTask.adapt(() -> download(url, arguments, sinks)))
+                .toList();
+            return mergeAll(tasks, sinks);
+        }));
+    }
+
+    private static StatisticsSink mergeAll(List<ForkJoinTask<StatisticsSink>> tasks, Supplier<StatisticsSink> sinks) {
+        ForkJoinTask.invokeAll(tasks);
+        StatisticsSink total = sinks.get();
+        tasks.forEach(task -> total.merge(task.join()));
+        return total;
+    }
+
+    /**
+     * Первый запрос просит только начало файла: ответ 206 с известной длиной означает поддержку диапазонов,
+     * а обычный ответ 200 сразу разбирается целиком, так что лишних запросов нет ни в одном случае.
+     */
+    private StatisticsSink download(URI url, Arguments arguments, Supplier<StatisticsSink> sinks) {
+        if (cache != null) {
+            return withPermit(url, () -> parse(url, cache.open(url), arguments, sinks.get()));
+        }
+        RemoteFile file;
+        acquire(url);
+        try {
+            HttpResponse<InputStream> response = send(url, HttpRequest.newBuilder(url)
+                .header(ACCEPT_ENCODING, GZIP)
+                .header(RANGE, "bytes=0-" + (Decompression.HEADER_LENGTH - 1)));
+            file = remoteFile(response);
+            if (file == null && (response.statusCode() == PARTIAL_CONTENT
+                || response.statusCode() == RANGE_NOT_SATISFIABLE)) {
+                response.body().close();
+                response = send(url, HttpRequest.newBuilder(url).header(ACCEPT_ENCODING, GZIP));
+            }
+            if (file == null) {
+                return parse(url, response, arguments, sinks.get());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(READ_ERROR + url, e);
+        } finally {
+            downloads.release();
+        }
+        if (file.compressed()) {
+            return withPermit(url, () -> parse(url, Decompression.decode(range(file, 0, file.length())),
+                arguments, sinks.get()));
+        }
+        List<ForkJoinTask<StatisticsSink>> tasks = LongStream.range(0, (file.length() + rangeSize - 1) / rangeSize)
+            .mapToObj(i -> ForkJoinTask.adapt(() -> withPermit(url, () -> parse(url,
+                range(file, i * rangeSize, Math.min(file.length(), (i + 1) * rangeSize)), arguments, sinks.get()))))
+            .toList();
+        return mergeAll(tasks, sinks);
+    }
+
+    private InputStream range(RemoteFile file, long from, long to) {
+        return new RangeInputStream(client, file.url(), file.validator(), file.length(), from, to);
+    }
+
+    private RemoteFile remoteFile(HttpResponse<InputStream> response) {
+        String range = response.headers().firstValue("Content-Range").orElse("");
+        int slash = range.lastIndexOf('/');
+        if (response.statusCode() != PARTIAL_CONTENT || slash < 0
+            || response.headers().firstValue("Content-Encoding").filter(e -> !"identity".equals(e)).isPresent()) {
+            return null;
+        }
+        try (InputStream body = response.body()) {
+            long length = Long.parseLong(range.substring(slash + 1).trim());
+            byte[] header = body.readNBytes(Decompression.HEADER_LENGTH);
+            boolean compressed = Decompression.detect(header, header.length) != Decompression.Format.NONE;
+            String etag = response.headers().firstValue("ETag").filter(tag -> !tag.startsWith("W/")).orElse(null);
+            String validator = etag != null ? etag : response.headers().firstValue("Last-Modified").orElse(null);
+            return new RemoteFile(response.uri(), length, validator, compressed);
+        } catch (NumberFormatException | IOException e) {
+            return null;
+        }
+    }
+
+    private HttpResponse<InputStream> send(URI url, HttpRequest.Builder request) {
+        try {
+            return client.send(request.GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw notFound(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw notFound(url);
+        }
+    }
+
+    private StatisticsSink parse(URI url, HttpResponse<InputStream> response, Arguments arguments,
+        StatisticsSink sink) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() < SUCCESS || response.statusCode() >= REDIRECT) {
+                throw notFound(url);
+            }
+            return parse(url, Decompression.decode(body), arguments, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(READ_ERROR + url, e);
+        }
+    }
+
+    private static StatisticsSink parse(URI url, InputStream in, Arguments arguments, StatisticsSink sink) {
+        LogLineHandler handler = new LogLineHandler(arguments, sink);
+        try (in) {
+            LineReader.read(handler.prepare(in), handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(READ_ERROR + url, e);
+        }
+        return sink;
+    }
+
+    private StatisticsSink withPermit(URI url, IoSupplier<StatisticsSink> task) {
+        acquire(url);
+        try {
+            return task.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(READ_ERROR + url, e);
+        } finally {
+            downloads.release();
+        }
+    }
+
+    private void acquire(URI url) {
+        try {
+            downloads.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw notFound(url);
+        }
+    }
+
+    private static ResourseNotFoundException notFound(URI url) {
+        return new ResourseNotFoundException("Ресурс по адресу: " + url + " не доступен.");
+    }
+
+    private interface IoSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private record RemoteFile(URI url, long length, String validator, boolean compressed) {
+    }
+}
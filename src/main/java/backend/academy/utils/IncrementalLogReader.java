@@ -0,0 +1,123 @@
+package backend.academy.utils;
+
+import backend.academy.dto.Arguments;
+import backend.academy.stats.StatisticsSink;
+import backend.academy.utils.CheckpointStore.FileCheckpoint;
+import backend.academy.utils.CheckpointStore.FileIdentity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Повторный анализ с контрольными точками: для каждого файла читаются только байты, дописанные после
+ * прошлого запуска, и добавляются к сохраненной частичной статистике. Файл считается тем же, если совпадают
+ * inode (если он известен) и хэш начала файла, а размер не меньше сохраненного смещения; иначе (ротация,
+ * усечение, замена) файл читается заново, а его старая частичная статистика отбрасывается. После ротации
+ * переименованный файл находится по inode и не перечитывается. Неполная последняя строка учитывается
+ * в результате, но не в контрольной точке: в следующий раз она будет прочитана целиком.
+ * Сжатые файлы перечитываются целиком при любом изменении.
+ */
+public class IncrementalLogReader {
+
+    private final MappedLogReader reader;
+
+    private final CheckpointStore store;
+
+    public IncrementalLogReader(MappedLogReader reader, CheckpointStore store) {
+        this.reader = reader;
+        this.store = store;
+    }
+
+    /**
+     * Параметры, от которых зависит частичная статистика; контрольные точки с другими параметрами не используются.
+     */
+    public static String fingerprint(Arguments arguments) {
+        return String.join("|", Objects.toString(arguments.from()), Objects.toString(arguments.to()),
+            arguments.filterField(), arguments.filterValue(), arguments.parser(), arguments.logFormat(),
+            arguments.jsonFields(), arguments.groupBy(), String.valueOf(arguments.sizeHistogram()),
+            String.valueOf(arguments.hllPrecision()), arguments.ipBitmaps(), String.valueOf(arguments.topK()));
+    }
+
+    public StatisticsSink read(List<Path> files, Arguments arguments, int resourcePart) {
+        String fingerprint = fingerprint(arguments);
+        List<FileCheckpoint> previous = store.load(fingerprint);
+        List<FileCheckpoint> current = new ArrayList<>();
+        StatisticsSink total = StatisticsSink.of(arguments, resourcePart);
+        for (Path file : files) {
+            try {
+                FileIdentity identity = CheckpointStore.identify(file);
+                FileCheckpoint saved = find(previous, file, identity);
+                total.merge(read(file, identity, saved, arguments, resourcePart, current));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка при чтении файла: " + file, e);
+            }
+        }
+        store.save(fingerprint, current);
+        return total;
+    }
+
+    private StatisticsSink read(Path file, FileIdentity identity, FileCheckpoint saved, Arguments arguments,
+        int resourcePart, List<FileCheckpoint> checkpoints) throws IOException {
+        Supplier<StatisticsSink> sinks = () -> StatisticsSink.of(arguments, resourcePart);
+        boolean compressed = isCompressed(file);
+        boolean resume = resumable(file, saved, identity, compressed);
+        StatisticsSink partial = resume ? StatisticsSink.restore(saved.stats(), resourcePart) : sinks.get();
+        long start = resume ? saved.offset() : 0;
+        long lineEnd = compressed ? identity.size() : MappedLogReader.lastLineEnd(file, start);
+        if (lineEnd > start) {
+            partial.merge(reader.read(file, start, lineEnd, arguments, sinks));
+        }
+        checkpoints.add(new FileCheckpoint(file.toAbsolutePath().toString(), identity, lineEnd, partial.state()));
+        StatisticsSink result = sinks.get().merge(partial);
+        if (lineEnd < identity.size()) {
+            result.merge(reader.read(file, lineEnd, identity.size(), arguments, sinks));
+        }
+        return result;
+    }
+
+    private static boolean resumable(Path file, FileCheckpoint saved, FileIdentity identity, boolean compressed)
+        throws IOException {
+        if (saved == null) {
+            return false;
+        }
+        FileIdentity previous = saved.identity();
+        if (compressed) {
+            return previous.size() == identity.size() && previous.modified() == identity.modified()
+                && Objects.equals(previous.headHash(), identity.headHash());
+        }
+        return Objects.equals(previous.fileKey(), identity.fileKey())
+            && identity.size() >= saved.offset()
+            && Objects.equals(previous.headHash(), CheckpointStore.headHash(file, previous.headLength()));
+    }
+
+    /**
+     * Точка для файла: по inode (файл мог быть переименован при ротации), иначе по пути.
+     */
+    private static FileCheckpoint find(List<FileCheckpoint> checkpoints, Path file, FileIdentity identity) {
+        String fileKey = identity.fileKey();
+        String path = file.toAbsolutePath().toString();
+        FileCheckpoint byPath = null;
+        for (FileCheckpoint checkpoint : checkpoints) {
+            if (fileKey != null && fileKey.equals(checkpoint.identity().fileKey())) {
+                return checkpoint;
+            }
+            if (path.equals(checkpoint.path())) {
+                byPath = checkpoint;
+            }
+        }
+        return byPath;
+    }
+
+    private static boolean isCompressed(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(Decompression.HEADER_LENGTH);
+            return Decompression.detect(header, header.length) != Decompression.Format.NONE;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package backend.academy.utils;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Разбор IP-адресов из байтового буфера без создания строк.
+ */
+@UtilityClass
+@SuppressWarnings("MagicNumber")
+public class IpAddresses {
+
+    /**
+     * Адрес IPv4 в виде беззнакового 32-битного числа или -1, если диапазон не является адресом IPv4.
+     */
+    public static long parseIpv4(byte[] buf, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int i = from;
+        while (octets < 4) {
+            int start = i;
+            int octet = 0;
+            while (i < to && i - start < 3 && buf[i] >= '0' && buf[i] <= '9') {
+                octet = octet * 10 + buf[i] - '0';
+                i++;
+            }
+            if (i == start || octet > 255) {
+                return -1;
+            }
+            address = address << 8 | octet;
+            octets++;
+            if (octets < 4) {
+                if (i == to || buf[i] != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+        return i == to ? address : -1;
+    }
+}
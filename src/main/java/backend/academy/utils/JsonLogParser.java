@@ -0,0 +1,256 @@
+package backend.academy.utils;
+
+import backend.academy.config.Config;
+import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogRecordView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбор логов в формате JSON lines (nginx {@code escape=json}): одна JSON-запись на строку.
+ * Строки по очереди подаются одному неблокирующему потоковому парсеру Jackson, без построения дерева;
+ * значения неизвестных полей пропускаются. Парсер пересоздается только после некорректной строки.
+ * Записи с некорректным временем или размером ответа пропускаются так же, как некорректный JSON.
+ * Экземпляр не потокобезопасен.
+ */
+public class JsonLogParser {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final List<String> FIELDS =
+        List.of("remoteAddr", "remoteUser", "timestamp", "request", "status", "bodyBytesSent", "agent");
+
+    private static final int REMOTE_ADDRESS = 0;
+
+    private static final int REMOTE_USER = 1;
+
+    private static final int TIMESTAMP = 2;
+
+    private static final int REQUEST = 3;
+
+    private static final int STATUS = 4;
+
+    private static final int BODY_BYTES = 5;
+
+    private static final int AGENT = 6;
+
+    private static final int STATUS_LENGTH = 3;
+
+    private final Map<String, Integer> mapping;
+
+    private final String[] values = new String[FIELDS.size()];
+
+    private JsonParser parser;
+
+    private ByteArrayFeeder feeder;
+
+    private String previousTimestamp;
+
+    private long previousEpochSecond;
+
+    private long epochSecond;
+
+    private long bodyBytesSent;
+
+    /**
+     * Создает парсер с соответствием полей по умолчанию, дополненным переданным.
+     *
+     * @param fieldMapping соответствие полей записи ключам JSON через запятую, например
+     *                     {@code remoteAddr=ip,timestamp=ts}; не указанные поля берутся из
+     *                     {@link Config#JSON_FIELDS}. Может быть {@code null}.
+     */
+    public JsonLogParser(String fieldMapping) {
+        this.mapping = parseMapping(Config.JSON_FIELDS, new HashMap<>());
+        if (fieldMapping != null && !fieldMapping.isBlank()) {
+            Map<String, Integer> custom = parseMapping(fieldMapping, new HashMap<>());
+            mapping.values().removeIf(custom::containsValue);
+            mapping.putAll(custom);
+        }
+        reset();
+    }
+
+    private static Map<String, Integer> parseMapping(String fieldMapping, Map<String, Integer> mapping) {
+        for (String entry : fieldMapping.split(",")) {
+            String[] pair = entry.split("=", 2);
+            int field = FIELDS.indexOf(pair[0].trim());
+            if (pair.length != 2 || field < 0 || pair[1].isBlank()) {
+                throw new IllegalArgumentException("Неверное соответствие полей JSON: " + entry
+                    + ". Ожидается <поле>=<ключ>, где поле одно из " + FIELDS);
+            }
+            mapping.put(pair[1].trim(), field);
+        }
+        return mapping;
+    }
+
+    /**
+     * Разбирает одну строку; для некорректного JSON или записи без обязательных полей возвращает {@code null}.
+     * Размер ответа больше {@link Integer#MAX_VALUE} в {@link LogRecord} не помещается, такая запись тоже
+     * пропускается; для подсчета статистики используйте {@link #emit}.
+     */
+    public LogRecord parse(byte[] line, int from, int to) {
+        if (!read(line, from, to) || bodyBytesSent > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new LogRecord(values[REMOTE_ADDRESS],
+            values[REMOTE_USER] == null ? "-" : values[REMOTE_USER],
+            LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC),
+            values[REQUEST],
+            Integer.parseInt(values[STATUS]),
+            (int) bodyBytesSent,
+            agent());
+    }
+
+    /**
+     * Разбирает одну строку и, если запись корректна и проходит фильтр, передает ее события в {@code sink};
+     * размер ответа передается как {@code long}, как в разборе текстовых строк.
+     */
+    public void emit(byte[] line, int from, int to, RecordFilter filter, LogEventSink sink) {
+        if (read(line, from, to) && filter.test(epochSecond, this::fieldValue)) {
+            byte[] remoteAddr = values[REMOTE_ADDRESS].getBytes(StandardCharsets.UTF_8);
+            byte[] request = values[REQUEST].getBytes(StandardCharsets.UTF_8);
+            byte[] agent = agent().getBytes(StandardCharsets.UTF_8);
+            sink.onRecordStart();
+            sink.onAddress(remoteAddr, 0, remoteAddr.length);
+            sink.onTimestamp(epochSecond);
+            sink.onRequest(request, 0, request.length);
+            sink.onStatus(Integer.parseInt(values[STATUS]));
+            sink.onBytes(bodyBytesSent);
+            sink.onAgent(agent, 0, agent.length);
+            sink.onRecordEnd();
+        }
+    }
+
+    private String agent() {
+        return values[AGENT] == null ? "" : values[AGENT];
+    }
+
+    private String fieldValue(String field) {
+        return switch (LogRecordView.fieldCode(field)) {
+            case LogRecordView.AGENT_FIELD -> agent();
+            case LogRecordView.METHOD_FIELD -> RequestLine.part(values[REQUEST], RequestLine.METHOD);
+            case LogRecordView.PATH_FIELD -> RequestLine.part(values[REQUEST], RequestLine.PATH);
+            case LogRecordView.QUERY_FIELD -> RequestLine.part(values[REQUEST], RequestLine.QUERY);
+            case LogRecordView.PROTOCOL_FIELD -> RequestLine.part(values[REQUEST], RequestLine.PROTOCOL);
+            case LogRecordView.REQUEST_FIELD -> values[REQUEST];
+            case LogRecordView.STATUS_FIELD -> values[STATUS];
+            default -> null;
+        };
+    }
+
+    /**
+     * Разбирает строку в {@link #values}, время и размер ответа; {@code false} для некорректной записи.
+     */
+    private boolean read(byte[] line, int from, int to) {
+        boolean consumed = false;
+        try {
+            feeder.feedInput(line, from, to);
+            consumed = readObject() && parser.nextToken() == JsonToken.NOT_AVAILABLE;
+        } catch (IOException e) {
+            consumed = false;
+        } finally {
+            if (!consumed) {
+                reset();
+            }
+        }
+        return consumed && isValid() && decode();
+    }
+
+    private boolean readObject() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        Arrays.fill(values, null);
+        JsonToken token = parser.nextToken();
+        while (token == JsonToken.FIELD_NAME) {
+            Integer field = mapping.get(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            } else if (field != null && value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                values[field] = parser.getText();
+            } else if (value == JsonToken.NOT_AVAILABLE) {
+                return false;
+            }
+            token = parser.nextToken();
+        }
+        return token == JsonToken.END_OBJECT;
+    }
+
+    private boolean isValid() {
+        String remoteAddr = values[REMOTE_ADDRESS];
+        String status = values[STATUS];
+        String bytes = values[BODY_BYTES];
+        return remoteAddr != null && !remoteAddr.isEmpty() && values[TIMESTAMP] != null && values[REQUEST] != null
+            && status != null && status.length() == STATUS_LENGTH && isDigits(status)
+            && (bytes == null || isDigits(bytes) || "-".equals(bytes));
+    }
+
+    private boolean decode() {
+        String bytes = values[BODY_BYTES];
+        try {
+            bodyBytesSent = bytes == null || "-".equals(bytes) || bytes.isEmpty() ? 0 : Long.parseLong(bytes);
+            epochSecond = epochSecond(values[TIMESTAMP]);
+            return true;
+        } catch (NumberFormatException | DateTimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Время в формате {@code $time_local}, {@code $time_iso8601} или секунды эпохи ({@code $msec}).
+     */
+    private long epochSecond(String text) {
+        if (!text.equals(previousTimestamp)) {
+            OffsetDateTime dateTime;
+            if (isEpoch(text)) {
+                double epoch = Double.parseDouble(text);
+                dateTime = OffsetDateTime.ofInstant(Instant.ofEpochSecond((long) Math.floor(epoch)), ZoneOffset.UTC);
+            } else if (text.length() == TimestampDecoder.LENGTH) {
+                dateTime = OffsetDateTime.parse(text, Config.LOG_FORMATTER);
+            } else {
+                dateTime = OffsetDateTime.parse(text, Config.ISO_FORMATTER);
+            }
+            previousEpochSecond = dateTime.toEpochSecond();
+            previousTimestamp = text;
+        }
+        return previousEpochSecond;
+    }
+
+    private void reset() {
+        try {
+            parser = FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEpoch(String value) {
+        int dot = value.indexOf('.');
+        return !value.isEmpty() && (dot < 0 ? isDigits(value)
+            : dot > 0 && isDigits(value.substring(0, dot)) && isDigits(value.substring(dot + 1)));
+    }
+}
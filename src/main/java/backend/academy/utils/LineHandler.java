@@ -0,0 +1,6 @@
+package backend.academy.utils;
+
+@FunctionalInterface
+public interface LineHandler {
+    void onLine(byte[] line, int from, int to);
+}
@@ -0,0 +1,76 @@
+package backend.academy.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Делит поток на строки прямо в байтовом буфере, который переиспользуется для всех строк потока.
+ * Разделители те же, что у {@link java.io.BufferedReader#readLine()}: \n, \r и \r\n.
+ * Концы строк ищутся через {@link ByteScanner}, по умолчанию векторный, если он доступен.
+ */
+@UtilityClass
+public class LineReader {
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte LF = '\n';
+
+    private static final byte CR = '\r';
+
+    public static void read(InputStream in, LineHandler handler) throws IOException {
+        read(in, handler, ByteScanners.DEFAULT);
+    }
+
+    public static void read(InputStream in, LineHandler handler, ByteScanner scanner) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int start = 0;
+        int end = 0;
+        boolean skipLf = false;
+        while (true) {
+            if (start == end) {
+                start = 0;
+                end = 0;
+            } else if (end == buffer.length) {
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                } else {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                break;
+            }
+            int limit = end + read;
+            int i = end;
+            if (skipLf && i < limit) {
+                skipLf = false;
+                if (buffer[i] == LF) {
+                    start = ++i;
+                }
+            }
+            for (int lineEnd = scanner.indexOfAny(buffer, i, limit, LF, CR);
+                 lineEnd >= 0;
+                 lineEnd = scanner.indexOfAny(buffer, i, limit, LF, CR)) {
+                handler.onLine(buffer, start, lineEnd);
+                i = lineEnd + 1;
+                if (buffer[lineEnd] == CR) {
+                    if (i == limit) {
+                        skipLf = true;
+                    } else if (buffer[i] == LF) {
+                        i++;
+                    }
+                }
+                start = i;
+            }
+            end = limit;
+        }
+        if (start < end) {
+            handler.onLine(buffer, start, end);
+        }
+    }
+}
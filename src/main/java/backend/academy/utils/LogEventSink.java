@@ -0,0 +1,27 @@
+package backend.academy.utils;
+
+/**
+ * Получатель событий разбора строки лога (в стиле SAX). Текстовые поля передаются границами
+ * в буфере строки и действительны только до возврата из метода. События одной записи приходят
+ * между {@link #onRecordStart()} и {@link #onRecordEnd()} только для строк, прошедших разбор.
+ */
+public interface LogEventSink {
+
+    default void onRecordStart() {
+    }
+
+    void onAddress(byte[] line, int from, int to);
+
+    void onTimestamp(long epochSecond);
+
+    void onRequest(byte[] line, int from, int to);
+
+    void onStatus(int status);
+
+    void onBytes(long bodyBytesSent);
+
+    void onAgent(byte[] line, int from, int to);
+
+    default void onRecordEnd() {
+    }
+}
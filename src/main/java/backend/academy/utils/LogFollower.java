@@ -0,0 +1,203 @@
+package backend.academy.utils;
+
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogStatistics;
+import backend.academy.stats.StatisticsSink;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Режим {@code --follow}: файлы читаются до конца, затем в общую статистику добавляются только дописанные строки.
+ * Изменения отслеживаются через {@link WatchService}, а опрос раз в {@code pollInterval} подстраховывает
+ * файловые системы, где события не приходят. Позиция чтения всегда стоит на границе строки: неполная последняя
+ * строка дочитывается при следующем опросе, поэтому между опросами ничего, кроме открытых файлов, не хранится.
+ * Ротация определяется по смене идентификатора файла (inode): старый файл дочитывается до конца, новый читается
+ * с начала. Усечение ({@code copytruncate}) определяется по уменьшению размера.
+ * Отчет передается не чаще раза в {@code reportInterval} и только если появились новые записи.
+ */
+@Slf4j
+public class LogFollower {
+
+    private final List<TailedFile> files;
+
+    private final StatisticsSink sink;
+
+    private final List<Double> percentiles;
+
+    private final Duration pollInterval;
+
+    private final Duration reportInterval;
+
+    private volatile boolean running = true;
+
+    public LogFollower(List<Path> paths, Arguments arguments, StatisticsSink sink, Duration pollInterval,
+        Duration reportInterval) {
+        this.files = paths.stream().map(path -> new TailedFile(path, new LogLineHandler(arguments, sink))).toList();
+        this.sink = sink;
+        this.percentiles = arguments.percentiles();
+        this.pollInterval = pollInterval;
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Читает файлы, пока не вызван {@link #stop()} или поток не прерван.
+     */
+    public void run(Consumer<LogStatistics> reports) throws IOException {
+        long reported = 0;
+        long nextReport = System.nanoTime();
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            register(watcher);
+            while (running) {
+                for (TailedFile file : files) {
+                    file.poll();
+                }
+                long now = System.nanoTime();
+                if (now - nextReport >= 0) {
+                    if (sink.recordCount() != reported) {
+                        reported = sink.recordCount();
+                        reports.accept(sink.statistics(percentiles));
+                    }
+                    nextReport = now + reportInterval.toNanos();
+                }
+                long wait = Math.min(pollInterval.toNanos(), Math.max(0, nextReport - now));
+                awaitChange(watcher, wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (TailedFile file : files) {
+                file.close();
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    private void register(WatchService watcher) {
+        files.stream()
+            .map(file -> file.path.toAbsolutePath().getParent())
+            .filter(Objects::nonNull)
+            .distinct()
+            .forEach(directory -> {
+                try {
+                    directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                } catch (IOException e) {
+                    log.debug("Каталог {} отслеживается только опросом", directory, e);
+                }
+            });
+    }
+
+    private static void awaitChange(WatchService watcher, long nanos) throws InterruptedException {
+        WatchKey key = watcher.poll(nanos, TimeUnit.NANOSECONDS);
+        while (key != null) {
+            key.pollEvents();
+            key.reset();
+            key = watcher.poll();
+        }
+    }
+
+    private static final class TailedFile {
+
+        private final Path path;
+
+        private final LogLineHandler handler;
+
+        private FileChannel channel;
+
+        private Object fileKey;
+
+        private long position;
+
+        private boolean prepared;
+
+        TailedFile(Path path, LogLineHandler handler) {
+            this.path = path;
+            this.handler = handler;
+        }
+
+        void poll() throws IOException {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                if (channel != null) {
+                    read(false);
+                }
+                return;
+            }
+            if (channel != null && attributes.fileKey() != null && !attributes.fileKey().equals(fileKey)) {
+                read(true);
+                close();
+            }
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+                fileKey = attributes.fileKey();
+                position = 0;
+                prepared = false;
+            }
+            if (channel.size() < position) {
+                position = 0;
+            }
+            read(false);
+        }
+
+        /**
+         * Читает новые полные строки; {@code all} - файл больше не пишется, и последняя строка читается целиком.
+         */
+        private void read(boolean all) throws IOException {
+            long size = channel.size();
+            if (size > position) {
+                try (Arena arena = Arena.ofConfined()) {
+                    MemorySegment segment =
+                        channel.map(FileChannel.MapMode.READ_ONLY, position, size - position, arena);
+                    long end = all ? segment.byteSize() : MappedLogReader.lastLineEnd(segment);
+                    if (end > 0) {
+                        readLines(segment.asSlice(0, end));
+                    }
+                }
+            }
+        }
+
+        private void readLines(MemorySegment lines) throws IOException {
+            InputStream in = new SegmentInputStream(lines);
+            if (!prepared) {
+                in = handler.prepare(in);
+                prepared = true;
+            }
+            LineReader.read(in, handler);
+            position += lines.byteSize();
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Не удалось закрыть {}", path, e);
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package backend.academy.utils;
+
+import backend.academy.dto.LogRecordView;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Getter;
+
+/**
+ * Формат лога, заданный строкой в синтаксисе nginx {@code log_format}, например
+ * {@code $remote_addr - $remote_user [$time_local] "$request" $status $body_bytes_sent}.
+ * Строка формата один раз компилируется в последовательность литералов и переменных; каждая переменная
+ * заканчивается первым вхождением следующего литерала. Неизвестные переменные пропускаются.
+ */
+public final class LogFormat implements LogTokenizer {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\$([A-Za-z_][A-Za-z0-9_]*)");
+
+    private static final int IGNORED = -1;
+
+    private static final int STATUS_LENGTH = 3;
+
+    private static final byte[] SPACE = {' '};
+
+    private static final ByteScanner SCANNER = ByteScanners.DEFAULT;
+
+    private static final int[] OPTIONAL_FIELDS = {
+        ByteLogParser.REMOTE_USER, ByteLogParser.BODY_BITES, ByteLogParser.AGENT
+    };
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final String layout;
+
+    private final byte[][] literals;
+
+    private final int[] variables;
+
+    private LogFormat(String name, String layout, byte[][] literals, int[] variables) {
+        this.name = name;
+        this.layout = layout;
+        this.literals = literals;
+        this.variables = variables;
+    }
+
+    public static LogFormat compile(String name, String layout) {
+        List<byte[]> literals = new ArrayList<>();
+        List<Integer> variables = new ArrayList<>();
+        Matcher matcher = VARIABLE.matcher(layout);
+        int last = 0;
+        while (matcher.find()) {
+            byte[] literal = layout.substring(last, matcher.start()).getBytes(StandardCharsets.UTF_8);
+            if (literal.length == 0 && !variables.isEmpty()) {
+                throw new IllegalArgumentException("Переменные формата должны разделяться текстом: " + layout);
+            }
+            literals.add(literal);
+            variables.add(field(matcher.group(1)));
+            last = matcher.end();
+        }
+        literals.add(layout.substring(last).getBytes(StandardCharsets.UTF_8));
+
+        for (int required : new int[] {ByteLogParser.REMOTE_ADDRESS, ByteLogParser.TIMESTAMP,
+            ByteLogParser.REQUEST, ByteLogParser.STATUS}) {
+            if (!variables.contains(required)) {
+                throw new IllegalArgumentException("В формате отсутствуют обязательные поля "
+                    + "$remote_addr, $time_local, $request, $status: " + layout);
+            }
+        }
+        return new LogFormat(name, layout, literals.toArray(byte[][]::new),
+            variables.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int field(String variable) {
+        return switch (variable) {
+            case "remote_addr" -> ByteLogParser.REMOTE_ADDRESS;
+            case "remote_user" -> ByteLogParser.REMOTE_USER;
+            case "time_local" -> ByteLogParser.TIMESTAMP;
+            case "request" -> ByteLogParser.REQUEST;
+            case "status" -> ByteLogParser.STATUS;
+            case "body_bytes_sent", "bytes_sent" -> ByteLogParser.BODY_BITES;
+            case "http_user_agent" -> ByteLogParser.AGENT;
+            default -> IGNORED;
+        };
+    }
+
+    @Override
+    public boolean tokenize(byte[] line, int from, int to, LogRecordView view) {
+        int[] fields = view.fields();
+        for (int field : OPTIONAL_FIELDS) {
+            fields[field] = from;
+            fields[field + 1] = from;
+        }
+        if (!startsWith(line, from, to, literals[0])) {
+            return false;
+        }
+        int pos = from + literals[0].length;
+        for (int i = 0; i < variables.length; i++) {
+            byte[] next = literals[i + 1];
+            int end = next.length == 0 ? to : indexOf(line, pos, to, next);
+            if (end < 0 || !accept(variables[i], line, pos, end, fields)) {
+                return false;
+            }
+            pos = end + next.length;
+        }
+        RequestLine.split(line, fields[ByteLogParser.REQUEST], fields[ByteLogParser.REQUEST + 1], fields,
+            ByteLogParser.REQUEST_PARTS);
+        view.line(line);
+        return true;
+    }
+
+    private static boolean accept(int field, byte[] line, int from, int to, int[] fields) {
+        boolean valid = switch (field) {
+            case IGNORED -> true;
+            case ByteLogParser.REMOTE_ADDRESS -> to > from && indexOf(line, from, to, SPACE) < 0;
+            case ByteLogParser.TIMESTAMP -> TimestampDecoder.hasLayout(line, from, to);
+            case ByteLogParser.STATUS -> to - from == STATUS_LENGTH && isDigits(line, from, to);
+            case ByteLogParser.BODY_BITES -> to > from && (isDigits(line, from, to) || isDash(line, from, to));
+            default -> true;
+        };
+        if (valid && field != IGNORED) {
+            boolean empty = field == ByteLogParser.BODY_BITES && isDash(line, from, to);
+            fields[field] = from;
+            fields[field + 1] = empty ? from : to;
+        }
+        return valid;
+    }
+
+    private static boolean isDigits(byte[] line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDash(byte[] line, int from, int to) {
+        return to - from == 1 && line[from] == '-';
+    }
+
+    private static boolean startsWith(byte[] line, int from, int to, byte[] literal) {
+        if (to - from < literal.length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (line[from + i] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] line, int from, int to, byte[] literal) {
+        int last = to - literal.length + 1;
+        for (int i = SCANNER.indexOf(line, from, last, literal[0]);
+             i >= 0;
+             i = SCANNER.indexOf(line, i + 1, last, literal[0])) {
+            if (startsWith(line, i, to, literal)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,81 @@
+package backend.academy.utils;
+
+import backend.academy.config.Config;
+import backend.academy.dto.LogRecordView;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Реестр форматов лога. Встроенные форматы: {@value Config#NGINX_FORMAT} (nginx combined)
+ * и {@value Config#APACHE_FORMAT} (Apache common); порядок регистрации задает приоритет при автоопределении.
+ */
+@UtilityClass
+public class LogFormatRegistry {
+
+    private static final List<LogFormat> FORMATS = new CopyOnWriteArrayList<>(List.of(
+        LogFormat.compile(Config.NGINX_FORMAT, Config.NGINX_LAYOUT),
+        LogFormat.compile(Config.APACHE_FORMAT, Config.APACHE_LAYOUT)
+    ));
+
+    public static synchronized LogFormat register(String name, String layout) {
+        LogFormat format = LogFormat.compile(name, layout);
+        FORMATS.removeIf(registered -> registered.name().equalsIgnoreCase(name));
+        FORMATS.add(format);
+        return format;
+    }
+
+    public static LogFormat get(String name) {
+        return FORMATS.stream()
+            .filter(format -> format.name().equalsIgnoreCase(name))
+            .findFirst()
+            .orElse(null);
+    }
+
+    /**
+     * Формат по имени из реестра, либо формат, скомпилированный из переданной строки формата.
+     */
+    public static LogFormat resolve(String nameOrLayout) {
+        LogFormat format = get(nameOrLayout);
+        if (format != null) {
+            return format;
+        }
+        if (nameOrLayout.contains("$")) {
+            return LogFormat.compile(nameOrLayout, nameOrLayout);
+        }
+        throw new IllegalArgumentException("Неизвестный формат лога: " + nameOrLayout);
+    }
+
+    /**
+     * Выбирает формат, который разбирает больше всего строк из первых строк выборки.
+     */
+    public static LogFormat detect(byte[] sample, int from, int to) {
+        List<LogFormat> formats = List.copyOf(FORMATS);
+        int[] matches = new int[formats.size()];
+        LogRecordView view = new LogRecordView();
+        int lineStart = from;
+        int lines = 0;
+        while (lineStart < to && lines < Config.FORMAT_SAMPLE_LINES) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && sample[lineEnd] != '\n' && sample[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            if (lineEnd > lineStart) {
+                for (int i = 0; i < formats.size(); i++) {
+                    if (formats.get(i).tokenize(sample, lineStart, lineEnd, view)) {
+                        matches[i]++;
+                    }
+                }
+                lines++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        int best = 0;
+        for (int i = 1; i < matches.length; i++) {
+            if (matches[i] > matches[best]) {
+                best = i;
+            }
+        }
+        return formats.get(best);
+    }
+}
@@ -0,0 +1,117 @@
+package backend.academy.utils;
+
+import backend.academy.config.Config;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogRecordView;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Разбирает строки выбранным способом, применяет фильтры и передает принятые записи в {@link LogEventSink}.
+ * При {@code --log-format auto} формат определяется заново для каждого входного потока,
+ * строки JSON lines распознаются по открывающей фигурной скобке.
+ * Экземпляр не потокобезопасен.
+ */
+public class LogLineHandler implements LineHandler {
+
+    private final RecordFilter filter;
+
+    private final LogEventSink sink;
+
+    private final LogRecordView view = new LogRecordView();
+
+    private final boolean detectFormat;
+
+    private final String jsonFields;
+
+    private boolean selected;
+
+    private LogTokenizer tokenizer;
+
+    private JsonLogParser jsonParser;
+
+    private boolean jsonInput;
+
+    public LogLineHandler(Arguments arguments, LogEventSink sink) {
+        this.filter = new RecordFilter(arguments);
+        this.sink = sink;
+        this.detectFormat = Config.LOG_FORMAT_AUTO.equalsIgnoreCase(arguments.logFormat());
+        this.jsonFields = arguments.jsonFields();
+        this.jsonInput = Config.JSON_FORMAT.equalsIgnoreCase(arguments.logFormat());
+        if (jsonInput) {
+            this.jsonParser = new JsonLogParser(jsonFields);
+        } else if (!detectFormat) {
+            this.tokenizer = createTokenizer(arguments);
+        }
+        this.selected = !detectFormat;
+    }
+
+    private static LogTokenizer createTokenizer(Arguments arguments) {
+        if (arguments.logFormat() != null) {
+            return LogFormatRegistry.resolve(arguments.logFormat());
+        }
+        if (arguments.parser() == null) {
+            return ByteLogParser::tokenize;
+        }
+        return switch (arguments.parser().toUpperCase()) {
+            case Config.REGEX -> null;
+            case Config.BYTES -> ByteLogParser::tokenize;
+            default -> throw new IllegalArgumentException("Неподдерживаемый парсер: " + arguments.parser());
+        };
+    }
+
+    /**
+     * Подготавливает очередной входной поток: в режиме автоопределения читает его первые строки,
+     * выбирает формат и возвращает поток, который снова начинается с начала.
+     */
+    public InputStream prepare(InputStream in) throws IOException {
+        if (!detectFormat) {
+            return in;
+        }
+        BufferedInputStream buffered = new BufferedInputStream(in, Config.FORMAT_SAMPLE_BYTES);
+        buffered.mark(Config.FORMAT_SAMPLE_BYTES);
+        byte[] sample = buffered.readNBytes(Config.FORMAT_SAMPLE_BYTES);
+        buffered.reset();
+        select(sample, 0, sample.length);
+        return buffered;
+    }
+
+    private void select(byte[] sample, int from, int to) {
+        int start = from;
+        while (start < to && Character.isWhitespace(sample[start])) {
+            start++;
+        }
+        jsonInput = start < to && sample[start] == '{';
+        if (jsonInput) {
+            if (jsonParser == null) {
+                jsonParser = new JsonLogParser(jsonFields);
+            }
+        } else {
+            tokenizer = LogFormatRegistry.detect(sample, from, to);
+        }
+        selected = true;
+    }
+
+    @Override
+    public void onLine(byte[] line, int from, int to) {
+        if (!selected) {
+            select(line, from, to);
+        }
+        if (jsonInput) {
+            jsonParser.emit(line, from, to, filter, sink);
+        } else if (tokenizer == null) {
+            accept(LogParser.parseLine(new String(line, from, to - from, StandardCharsets.UTF_8)));
+        } else if (tokenizer.tokenize(line, from, to, view) && filter.test(view)) {
+            view.emit(sink);
+        }
+    }
+
+    private void accept(LogRecord logRecord) {
+        if (logRecord != null && filter.test(logRecord)) {
+            LogParser.emit(logRecord, sink);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package backend.academy.utils;
 
 import backend.academy.config.Config;
 import backend.academy.dto.LogRecord;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.regex.Matcher;
 import lombok.experimental.UtilityClass;
 
@@ -28,7 +31,9 @@ public class LogParser {
         if (matcher.find()) {
             String remoteAddr = matcher.group(REMOTE_ADDRESS);
             String remoteUser = matcher.group(REMOTE_USER);
-            LocalDateTime timestamp = LocalDateTime.parse(matcher.group(TIMESTAMP), Config.LOG_FORMATTER);
+            LocalDateTime timestamp = OffsetDateTime.parse(matcher.group(TIMESTAMP), Config.LOG_FORMATTER)
+                .withOffsetSameInstant(ZoneOffset.UTC)
+                .toLocalDateTime();
             String request = matcher.group(REQUEST);
             int status = Integer.parseInt(matcher.group(STATUS));
             int bodyBytesSent = Integer.parseInt(matcher.group(BODY_BITES));
@@ -37,4 +42,18 @@ public class LogParser {
         }
         return null;
     }
+
+    public static void emit(LogRecord logRecord, LogEventSink sink) {
+        byte[] remoteAddr = logRecord.remoteAddr().getBytes(StandardCharsets.UTF_8);
+        byte[] request = logRecord.request().getBytes(StandardCharsets.UTF_8);
+        byte[] agent = logRecord.agent().getBytes(StandardCharsets.UTF_8);
+        sink.onRecordStart();
+        sink.onAddress(remoteAddr, 0, remoteAddr.length);
+        sink.onTimestamp(logRecord.timestamp().toEpochSecond(ZoneOffset.UTC));
+        sink.onRequest(request, 0, request.length);
+        sink.onStatus(logRecord.status());
+        sink.onBytes(logRecord.bodyBytesSent());
+        sink.onAgent(agent, 0, agent.length);
+        sink.onRecordEnd();
+    }
 }
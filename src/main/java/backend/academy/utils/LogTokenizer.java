@@ -0,0 +1,8 @@
+package backend.academy.utils;
+
+import backend.academy.dto.LogRecordView;
+
+@FunctionalInterface
+public interface LogTokenizer {
+    boolean tokenize(byte[] line, int from, int to, LogRecordView view);
+}
@@ -0,0 +1,271 @@
+package backend.academy.utils;
+
+import backend.academy.dto.Arguments;
+import backend.academy.stats.StatisticsSink;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Параллельное чтение файлов: файл отображается в память как {@link MemorySegment}
+ * (поэтому поддерживаются файлы больше 2 ГБ) и делится пополам до частей не больше {@code chunkSize}.
+ * Границы частей сдвигаются на начало следующей строки. Каждая часть разбирается в своем
+ * {@link StatisticsSink}, затем частичные результаты объединяются, так что итог совпадает с последовательным чтением.
+ * Несколько файлов читаются одновременно в том же пуле; свободные потоки забирают части больших файлов.
+ * Сжатые файлы (gzip, zip) делить нельзя: они читаются целиком через {@link Decompression#decode},
+ * распаковка идет в отдельном потоке параллельно с разбором. С {@code --from/--to} в упорядоченном по времени
+ * файле читается только участок, найденный двоичным поиском ({@link TimeSeek}).
+ */
+public class MappedLogReader {
+
+    public static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    public static final long MIN_CHUNK_SIZE = 1024L * 1024;
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final String READ_ERROR = "Ошибка при чтении файла: ";
+
+    private final ForkJoinPool pool;
+
+    private final long chunkSize;
+
+    public MappedLogReader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public MappedLogReader(ForkJoinPool pool, long chunkSize) {
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public StatisticsSink read(Path file, Arguments arguments, Supplier<StatisticsSink> sinks) {
+        return read(file, 0, -1, arguments, sinks);
+    }
+
+    /**
+     * Читает участок [from, to) файла; {@code to < 0} - до конца файла. {@code from} должен быть началом строки.
+     */
+    public StatisticsSink read(Path file, long from, long to, Arguments arguments, Supplier<StatisticsSink> sinks) {
+        return pool.invoke(new FileTask(file, from, to, chunkSize, arguments, sinks));
+    }
+
+    /**
+     * Читает файлы параллельно; у каждого файла своя частичная статистика, они объединяются в порядке файлов.
+     * Размер части уменьшается (но не ниже {@link #MIN_CHUNK_SIZE}), чтобы работы хватило всем потокам пула.
+     */
+    public StatisticsSink read(List<Path> files, Arguments arguments, Supplier<StatisticsSink> sinks) {
+        long totalSize = files.stream().mapToLong(MappedLogReader::size).sum();
+        long parallelChunk = totalSize / ((long) pool.getParallelism() * CHUNKS_PER_THREAD);
+        long fileChunkSize = Math.min(chunkSize, Math.max(MIN_CHUNK_SIZE, parallelChunk));
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            List<FileTask> tasks = files.stream()
+                .map(file -> new FileTask(file, 0, -1, fileChunkSize, arguments, sinks))
+                .toList();
+            ForkJoinTask.invokeAll(tasks);
+            StatisticsSink total = sinks.get();
+            tasks.forEach(task -> total.merge(task.join()));
+            return total;
+        }));
+    }
+
+    /**
+     * Читает файлы по мере их обнаружения: {@code discovery} выполняется в пуле и передает найденные файлы,
+     * чтение каждого начинается сразу, не дожидаясь конца обхода. Возвращает статистику по каждому файлу
+     * в порядке путей.
+     */
+    public SortedMap<Path, StatisticsSink> read(Consumer<Consumer<Path>> discovery, Arguments arguments,
+        Supplier<StatisticsSink> sinks) {
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            Map<Path, FileTask> tasks = new ConcurrentHashMap<>();
+            discovery.accept(file -> {
+                long parallelChunk = size(file) / ((long) pool.getParallelism() * CHUNKS_PER_THREAD);
+                long fileChunkSize = Math.min(chunkSize, Math.max(MIN_CHUNK_SIZE, parallelChunk));
+                FileTask task = new FileTask(file, 0, -1, fileChunkSize, arguments, sinks);
+                tasks.put(file, task);
+                task.fork();
+            });
+            SortedMap<Path, StatisticsSink> result = new TreeMap<>();
+            tasks.forEach((file, task) -> result.put(file, task.join()));
+            return result;
+        }));
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(READ_ERROR + file, e);
+        }
+    }
+
+    /**
+     * Позиция сразу после первого \n, начиная с {@code from}, или {@code to}, если перевода строки нет.
+     */
+    static long alignToLine(MemorySegment segment, long from, long to) {
+        for (long i = from; i < to; i++) {
+            if (segment.get(ValueLayout.JAVA_BYTE, i) == '\n') {
+                return i + 1;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Позиция сразу после последнего \n в {@code segment} или 0, если полных строк нет.
+     */
+    static long lastLineEnd(MemorySegment segment) {
+        for (long i = segment.byteSize() - 1; i >= 0; i--) {
+            if (segment.get(ValueLayout.JAVA_BYTE, i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Конец последней полной строки файла после {@code from} или {@code from}, если полных строк нет.
+     */
+    public static long lastLineEnd(Path file, long from) {
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= from) {
+                return from;
+            }
+            return from + lastLineEnd(channel.map(FileChannel.MapMode.READ_ONLY, from, size - from, arena));
+        } catch (IOException e) {
+            throw new UncheckedIOException(READ_ERROR + file, e);
+        }
+    }
+
+    private static final class FileTask extends RecursiveTask<StatisticsSink> {
+
+        private final transient Path file;
+
+        private final long from;
+
+        private final long to;
+
+        private final long chunkSize;
+
+        private final transient Arguments arguments;
+
+        private final transient Supplier<StatisticsSink> sinks;
+
+        FileTask(Path file, long from, long to, long chunkSize, Arguments arguments, Supplier<StatisticsSink> sinks) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.arguments = arguments;
+            this.sinks = sinks;
+        }
+
+        @Override
+        protected StatisticsSink compute() {
+            try (Arena arena = Arena.ofShared();
+                 FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long end = to < 0 ? channel.size() : Math.min(to, channel.size());
+                if (end <= from) {
+                    return sinks.get();
+                }
+                MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, from, end - from, arena);
+                if (from == 0 && isCompressed(segment)) {
+                    return readCompressed(segment);
+                }
+                long[] window = window(segment);
+                return new ChunkTask(segment, window[0], window[1], chunkSize, arguments, sinks).compute();
+            } catch (IOException e) {
+                throw new UncheckedIOException(READ_ERROR + file, e);
+            }
+        }
+
+        /**
+         * Участок файла для {@code --from/--to}. {@link TimeSeek} создается для каждого файла: при
+         * {@code --log-format auto} его разбор настраивается на формат первой строки, а у файлов он может быть разным.
+         */
+        private long[] window(MemorySegment segment) {
+            return arguments.from() == null && arguments.to() == null ? new long[] {0, segment.byteSize()}
+                : new TimeSeek(arguments).window(segment);
+        }
+
+        private static boolean isCompressed(MemorySegment segment) {
+            int length = (int) Math.min(segment.byteSize(), Decompression.HEADER_LENGTH);
+            byte[] header = segment.asSlice(0, length).toArray(ValueLayout.JAVA_BYTE);
+            return Decompression.detect(header, length) != Decompression.Format.NONE;
+        }
+
+        private StatisticsSink readCompressed(MemorySegment segment) throws IOException {
+            StatisticsSink sink = sinks.get();
+            LogLineHandler handler = new LogLineHandler(arguments, sink);
+            try (InputStream in = Decompression.decode(new SegmentInputStream(segment))) {
+                LineReader.read(handler.prepare(in), handler);
+            }
+            return sink;
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<StatisticsSink> {
+
+        private final transient MemorySegment segment;
+
+        private final long from;
+
+        private final long to;
+
+        private final long chunkSize;
+
+        private final transient Arguments arguments;
+
+        private final transient Supplier<StatisticsSink> sinks;
+
+        ChunkTask(MemorySegment segment, long from, long to, long chunkSize, Arguments arguments,
+            Supplier<StatisticsSink> sinks) {
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.arguments = arguments;
+            this.sinks = sinks;
+        }
+
+        @Override
+        protected StatisticsSink compute() {
+            if (to - from > chunkSize) {
+                long middle = alignToLine(segment, from + (to - from) / 2, to);
+                if (middle < to) {
+                    ChunkTask left = new ChunkTask(segment, from, middle, chunkSize, arguments, sinks);
+                    left.fork();
+                    StatisticsSink right = new ChunkTask(segment, middle, to, chunkSize, arguments, sinks).compute();
+                    return left.join().merge(right);
+                }
+            }
+            StatisticsSink sink = sinks.get();
+            LogLineHandler handler = new LogLineHandler(arguments, sink);
+            try {
+                LineReader.read(handler.prepare(new SegmentInputStream(segment.asSlice(from, to - from))), handler);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return sink;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package backend.academy.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Читает исходный поток (например, распаковку) в отдельном потоке блоками и отдает их через ограниченную очередь,
+ * так что распаковка и разбор строк идут одновременно. Буферы блоков переиспользуются.
+ * Ошибка чтения исходного потока пробрасывается при чтении из этого потока.
+ */
+public class PipelinedInputStream extends InputStream {
+
+    public static final int BLOCK_SIZE = 256 * 1024;
+
+    public static final int DEPTH = 4;
+
+    private static final Block END = new Block(new byte[0], -1, null);
+
+    private final BlockingQueue<Block> filled = new ArrayBlockingQueue<>(DEPTH + 1);
+
+    private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(DEPTH);
+
+    private final Thread producer;
+
+    private Block current;
+
+    private int position;
+
+    private volatile boolean closed;
+
+    public PipelinedInputStream(InputStream source, String name) {
+        for (int i = 0; i < DEPTH; i++) {
+            free.add(new byte[BLOCK_SIZE]);
+        }
+        this.producer = Thread.ofPlatform().daemon().name(name).start(() -> produce(source));
+    }
+
+    private void produce(InputStream source) {
+        try (source) {
+            while (!closed) {
+                byte[] buffer = free.take();
+                int length = source.readNBytes(buffer, 0, buffer.length);
+                if (length == 0) {
+                    break;
+                }
+                filled.put(new Block(buffer, length, null));
+            }
+            filled.put(END);
+        } catch (IOException e) {
+            filled.offer(new Block(null, -1, e));
+        } catch (RuntimeException e) {
+            filled.offer(new Block(null, -1, new IOException(e.getMessage(), e)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return Byte.toUnsignedInt(current.data[position++]);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.data, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    private boolean fill() throws IOException {
+        if (current != null && position < current.length) {
+            return true;
+        }
+        if (current == END) {
+            return false;
+        }
+        if (current != null) {
+            free.offer(current.data);
+        }
+        try {
+            current = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Чтение прервано");
+        }
+        position = 0;
+        if (current.error != null) {
+            IOException error = current.error;
+            current = END;
+            throw error;
+        }
+        return current != END;
+    }
+
+    /**
+     * Останавливает поток чтения и дожидается его завершения, чтобы исходный поток был закрыт до возврата.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        producer.interrupt();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Block(byte[] data, int length, IOException error) {
+    }
+}
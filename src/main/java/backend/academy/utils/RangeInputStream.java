@@ -0,0 +1,201 @@
+package backend.academy.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Строки удаленного файла, которые начинаются в диапазоне [start, end), загруженные запросами {@code Range}.
+ * Как и у частей {@link MappedLogReader}, неполная первая строка пропускается (она принадлежит предыдущему
+ * диапазону), а последняя дочитывается за {@code end} до перевода строки. При обрыве соединения или ошибке
+ * сервера загрузка продолжается с текущей позиции, а не с начала диапазона; {@code If-Range} гарантирует,
+ * что файл за это время не заменили.
+ */
+class RangeInputStream extends InputStream {
+
+    private static final int MAX_ATTEMPTS = 4;
+
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private static final long LINE_EXTENSION = 64 * 1024;
+
+    private static final int PARTIAL_CONTENT = 206;
+
+    private final HttpClient client;
+
+    private final URI url;
+
+    private final String validator;
+
+    private final long length;
+
+    private final long end;
+
+    private long position;
+
+    private boolean skipping;
+
+    private boolean lastNewline;
+
+    private boolean finished;
+
+    private InputStream body;
+
+    private long bodyEnd;
+
+    private int failures;
+
+    RangeInputStream(HttpClient client, URI url, String validator, long length, long start, long end) {
+        this.client = client;
+        this.url = url;
+        this.validator = validator;
+        this.length = length;
+        this.end = end;
+        this.position = start == 0 ? 0 : start - 1;
+        this.skipping = start > 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : Byte.toUnsignedInt(single[0]);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        int result = -1;
+        while (result < 0 && !finished) {
+            if (position >= length || position >= end && (skipping || lastNewline)) {
+                finish();
+            } else {
+                result = next(buffer, offset, count);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Читает следующую порцию; возвращает -1, если все прочитанные байты относятся к пропускаемой первой строке.
+     */
+    private int next(byte[] buffer, int offset, int count) throws IOException {
+        boolean extension = position >= end;
+        int read = readBody(buffer, offset, extension ? count : (int) Math.min(count, end - position));
+        position += read;
+        int newline = indexOfNewline(buffer, offset, offset + read);
+        int result = read;
+        if (skipping) {
+            if (newline < 0) {
+                return -1;
+            }
+            skipping = false;
+            result = offset + read - newline - 1;
+            System.arraycopy(buffer, newline + 1, buffer, offset, result);
+        } else if (extension && newline >= 0) {
+            finish();
+            result = newline - offset + 1;
+        }
+        if (result == 0) {
+            lastNewline = true;
+            return -1;
+        }
+        lastNewline = buffer[offset + result - 1] == '\n';
+        return result;
+    }
+
+    private int readBody(byte[] buffer, int offset, int count) throws IOException {
+        while (true) {
+            try {
+                if (body != null && position >= bodyEnd) {
+                    closeBody();
+                }
+                if (body == null) {
+                    open();
+                }
+                int read = body.read(buffer, offset, (int) Math.min(count, bodyEnd - position));
+                if (read > 0) {
+                    failures = 0;
+                    return read;
+                }
+                throw new EOFException("Соединение закрыто до конца диапазона: " + url);
+            } catch (IOException e) {
+                closeBody();
+                if (++failures >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                pause();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        bodyEnd = position < end ? end : Math.min(length, position + LINE_EXTENSION);
+        HttpRequest.Builder request = HttpRequest.newBuilder(url)
+            .header("Range", "bytes=" + position + "-" + (bodyEnd - 1))
+            .GET();
+        if (validator != null) {
+            request.header("If-Range", validator);
+        }
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            throw interrupted();
+        }
+        body = response.body();
+        String range = response.headers().firstValue("Content-Range").orElse("");
+        if (response.statusCode() != PARTIAL_CONTENT || !range.startsWith("bytes " + position + "-")) {
+            throw new IOException("Сервер вернул не запрошенный диапазон (" + response.statusCode() + "): " + url);
+        }
+    }
+
+    private void pause() throws InterruptedIOException {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS * failures);
+        } catch (InterruptedException e) {
+            throw interrupted();
+        }
+    }
+
+    private InterruptedIOException interrupted() {
+        Thread.currentThread().interrupt();
+        return new InterruptedIOException("Загрузка прервана: " + url);
+    }
+
+    private void finish() {
+        finished = true;
+        closeBody();
+    }
+
+    private void closeBody() {
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // соединение все равно будет закрыто клиентом
+            }
+            body = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        finish();
+    }
+
+    private static int indexOfNewline(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,77 @@
+package backend.academy.utils;
+
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogRecordView;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Фильтры из аргументов, подготовленные один раз: границы дат переводятся в секунды эпохи,
+ * а шаблон значения компилируется заранее. Экземпляр не потокобезопасен.
+ */
+public class RecordFilter {
+
+    private final long from;
+
+    private final long to;
+
+    private final String field;
+
+    private final int fieldCode;
+
+    private final Matcher matcher;
+
+    public RecordFilter(Arguments arguments) {
+        this.from = arguments.from() == null ? Long.MIN_VALUE : arguments.from().toEpochSecond(ZoneOffset.UTC);
+        this.to = arguments.to() == null ? Long.MAX_VALUE : arguments.to().toEpochSecond(ZoneOffset.UTC);
+        if (arguments.filterField() != null && arguments.filterValue() != null) {
+            this.field = arguments.filterField();
+            this.fieldCode = LogRecordView.fieldCode(field);
+            this.matcher = Pattern.compile(arguments.filterValue()).matcher("");
+        } else {
+            this.field = null;
+            this.fieldCode = LogRecordView.UNKNOWN_FIELD;
+            this.matcher = null;
+        }
+    }
+
+    public boolean isEmpty() {
+        return from == Long.MIN_VALUE && to == Long.MAX_VALUE && matcher == null;
+    }
+
+    public boolean test(LogRecordView view) {
+        if (!isDateFiltered() || isInRange(view.epochSecond())) {
+            return matcher == null || matches(view.getFieldValue(fieldCode));
+        }
+        return false;
+    }
+
+    public boolean test(LogRecord logRecord) {
+        return test(logRecord.timestamp().toEpochSecond(ZoneOffset.UTC), logRecord::getFieldValue);
+    }
+
+    /**
+     * Проверяет запись по времени и значению поля, полученному по имени поля из {@code --filter-field}.
+     */
+    public boolean test(long epochSecond, Function<String, ? extends CharSequence> fieldValue) {
+        if (!isDateFiltered() || isInRange(epochSecond)) {
+            return matcher == null || matches(fieldValue.apply(field));
+        }
+        return false;
+    }
+
+    private boolean isDateFiltered() {
+        return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+
+    private boolean isInRange(long epochSecond) {
+        return epochSecond > from && epochSecond < to;
+    }
+
+    private boolean matches(CharSequence value) {
+        return value != null && matcher.reset(value).find();
+    }
+}
@@ -3,6 +3,7 @@ package backend.academy.utils;
 import backend.academy.config.Config;
 import backend.academy.dto.Arguments;
 import backend.academy.dto.LogStatistics;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.Map;
@@ -22,6 +23,21 @@ public class ReportFormatter {
 
     private static final String LINE = "|------------------------------------------|--------------|\n";
 
+    private static final String LINE_BOUNDED =
+        "|------------------------------------------|--------------|--------------|\n";
+
+    private static final String MD_UNIQUE_PER_DAY =
+        "| Дата                                     | Уникальных   |\n";
+
+    private static final String MD_UNIQUE_PER_RESOURCE =
+        "| Ресурс                                   | Уникальных   |\n";
+
+    private static final String ADOC_UNIQUE_PER_DAY =
+        "| Дата                                     | Уникальных   \n";
+
+    private static final String ADOC_UNIQUE_PER_RESOURCE =
+        "| Ресурс                                   | Уникальных   \n";
+
     public static String format(LogStatistics stats, Arguments arguments) {
         if (arguments.format() == null) {
             return formatMarkdown(stats, arguments);
@@ -45,13 +61,33 @@ public class ReportFormatter {
         report.append(String.format("| Конечная дата           | %s \n", getDate(arguments.to())));
         report.append(String.format("| Количество запросов     | %d \n", stats.totalRequests()));
         report.append(String.format("| Средний размер ответа   | %.2f b \n", stats.avgResponseSize()));
-        report.append(String.format("| 95-й персентиль размера | %.2f b \n", stats.responseSizePercentile95()));
+        percentiles(stats).forEach((percentile, size) -> report.append(
+            String.format("| %-23s | %.2f b \n", percentileLabel(percentile, "персентиль"), size)));
+        if (arguments.sizeHistogram() > 0) {
+            report.append(String.format("| Минимальный размер      | %d b \n", stats.minResponseSize()));
+            report.append(String.format("| Максимальный размер     | %d b \n", stats.maxResponseSize()));
+            report.append(String.format("| Стд. отклонение размера | %.2f b \n", stats.responseSizeStdDev()));
+        }
+        if (arguments.hllPrecision() > 0) {
+            report.append(String.format("| Уникальных IP-адресов   | ~%d \n", stats.uniqueIpAddresses()));
+            report.append(String.format("| Уникальных агентов      | ~%d \n", stats.uniqueAgents()));
+        }
+        if (arguments.ipBitmaps() != null) {
+            report.append(String.format("| Уникальных IPv4         | %d \n", stats.uniqueIpv4Addresses()));
+            report.append(String.format("| IPv4 во все дни         | %d \n", stats.ipv4SeenOnAllDays()));
+        }
         report.append("\n\n");
 
         report.append("#### Запрашиваемые ресурсы\n\n");
-        report.append("| Ресурс                                   | Количество        |\n");
-        report.append("|------------------------------------------|-------------------|\n");
-        report.append(buildTable(stats.resources(), null, arguments.order(), FORMAT_40, "%-15d", true));
+        if (arguments.topK() > 0) {
+            report.append("| Ресурс                                   | Количество   | Погрешность  |\n");
+            report.append(LINE_BOUNDED);
+            report.append(buildBoundedTable(stats.resources(), stats.resourceErrors(), arguments.order(), true));
+        } else {
+            report.append("| Ресурс                                   | Количество        |\n");
+            report.append("|------------------------------------------|-------------------|\n");
+            report.append(buildTable(stats.resources(), null, arguments.order(), FORMAT_40, "%-15d", true));
+        }
         report.append("\n");
 
         report.append("#### Коды ответа\n\n");
@@ -63,9 +99,22 @@ public class ReportFormatter {
         report.append("\n");
 
         report.append("#### Топ-15 IP-адресов по количеству запросов \n\n");
-        report.append("| Адрес                                    | Количество   |\n");
-        report.append(LINE);
-        report.append(buildTable(stats.ipAddresses(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40, FORMAT_10, true));
+        if (arguments.topK() > 0) {
+            report.append("| Адрес                                    | Количество   | Погрешность  |\n");
+            report.append(LINE_BOUNDED);
+            report.append(buildBoundedTable(stats.ipAddresses(), stats.ipAddressErrors(), Config.DESC, true));
+            report.append("\n");
+
+            report.append("#### Топ-15 агентов по количеству запросов \n\n");
+            report.append("| Агент                                    | Количество   | Погрешность  |\n");
+            report.append(LINE_BOUNDED);
+            report.append(buildBoundedTable(stats.agents(), stats.agentErrors(), Config.DESC, true));
+        } else {
+            report.append("| Адрес                                    | Количество   |\n");
+            report.append(LINE);
+            report.append(
+                buildTable(stats.ipAddresses(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40, FORMAT_10, true));
+        }
         report.append("\n");
 
         report.append("#### Топ-15 дней по количеству запросов \n\n");
@@ -74,6 +123,38 @@ public class ReportFormatter {
         report.append(
             buildTable(stats.countRequestsPerDay(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40, FORMAT_10, true));
 
+        if (arguments.hllPrecision() > 0) {
+            report.append("\n");
+            report.append("#### Топ-15 дней по количеству уникальных IP-адресов \n\n");
+            report.append(MD_UNIQUE_PER_DAY);
+            report.append(LINE);
+            report.append(buildTable(stats.uniqueIpAddressesPerDay(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40,
+                FORMAT_10, true));
+            report.append("\n");
+
+            report.append("#### Топ-15 ресурсов по количеству уникальных посетителей \n\n");
+            report.append(MD_UNIQUE_PER_RESOURCE);
+            report.append(LINE);
+            report.append(buildTable(stats.uniqueVisitorsPerResource(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40,
+                FORMAT_10, true));
+        }
+
+        if (arguments.ipBitmaps() != null) {
+            report.append("\n");
+            report.append("#### Уникальные IPv4-адреса по дням \n\n");
+            report.append(MD_UNIQUE_PER_DAY);
+            report.append(LINE);
+            report.append(buildTable(stats.uniqueIpv4PerDay(), null, Config.DESC, FORMAT_40, FORMAT_10, true));
+        }
+        if (!stats.uniqueIpv4PerResource().isEmpty()) {
+            report.append("\n");
+            report.append("#### Топ-15 ресурсов по количеству уникальных IPv4-адресов \n\n");
+            report.append(MD_UNIQUE_PER_RESOURCE);
+            report.append(LINE);
+            report.append(buildTable(stats.uniqueIpv4PerResource(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40,
+                FORMAT_10, true));
+        }
+
         return report.toString();
     }
 
@@ -89,13 +170,32 @@ public class ReportFormatter {
         report.append(String.format("| Конечная дата           | %s\n", getDate(arguments.to())));
         report.append(String.format("| Количество запросов     | %d\n", stats.totalRequests()));
         report.append(String.format("| Средний размер ответа   | %.2f b\n", stats.avgResponseSize()));
-        report.append(String.format("| 95-й перцентиль размера | %.2f b\n", stats.responseSizePercentile95()));
+        percentiles(stats).forEach((percentile, size) -> report.append(
+            String.format("| %-23s | %.2f b\n", percentileLabel(percentile, "перцентиль"), size)));
+        if (arguments.sizeHistogram() > 0) {
+            report.append(String.format("| Минимальный размер      | %d b\n", stats.minResponseSize()));
+            report.append(String.format("| Максимальный размер     | %d b\n", stats.maxResponseSize()));
+            report.append(String.format("| Стд. отклонение размера | %.2f b\n", stats.responseSizeStdDev()));
+        }
+        if (arguments.hllPrecision() > 0) {
+            report.append(String.format("| Уникальных IP-адресов   | ~%d\n", stats.uniqueIpAddresses()));
+            report.append(String.format("| Уникальных агентов      | ~%d\n", stats.uniqueAgents()));
+        }
+        if (arguments.ipBitmaps() != null) {
+            report.append(String.format("| Уникальных IPv4         | %d\n", stats.uniqueIpv4Addresses()));
+            report.append(String.format("| IPv4 во все дни         | %d\n", stats.ipv4SeenOnAllDays()));
+        }
         report.append(ADOC_BORDER_2);
 
         report.append("== Запрашиваемые ресурсы\n\n");
         report.append(ADOC_BORDER_1);
-        report.append("| Ресурс                                   | Количество\n");
-        report.append(buildTable(stats.resources(), null, arguments.order(), FORMAT_40, FORMAT_10, false));
+        if (arguments.topK() > 0) {
+            report.append("| Ресурс                                   | Количество   | Погрешность\n");
+            report.append(buildBoundedTable(stats.resources(), stats.resourceErrors(), arguments.order(), false));
+        } else {
+            report.append("| Ресурс                                   | Количество\n");
+            report.append(buildTable(stats.resources(), null, arguments.order(), FORMAT_40, FORMAT_10, false));
+        }
         report.append(ADOC_BORDER_2);
 
         report.append("== Коды ответа\n\n");
@@ -108,8 +208,20 @@ public class ReportFormatter {
 
         report.append("== Топ-15 IP-адресов по количеству запросов \n\n");
         report.append(ADOC_BORDER_1);
-        report.append("| Адрес                                    | Количество   \n");
-        report.append(buildTable(stats.ipAddresses(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40, FORMAT_10, false));
+        if (arguments.topK() > 0) {
+            report.append("| Адрес                                    | Количество   | Погрешность\n");
+            report.append(buildBoundedTable(stats.ipAddresses(), stats.ipAddressErrors(), Config.DESC, false));
+            report.append(ADOC_BORDER_2);
+
+            report.append("== Топ-15 агентов по количеству запросов \n\n");
+            report.append(ADOC_BORDER_1);
+            report.append("| Агент                                    | Количество   | Погрешность\n");
+            report.append(buildBoundedTable(stats.agents(), stats.agentErrors(), Config.DESC, false));
+        } else {
+            report.append("| Адрес                                    | Количество   \n");
+            report.append(
+                buildTable(stats.ipAddresses(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40, FORMAT_10, false));
+        }
         report.append(ADOC_BORDER_2);
 
         report.append("== Топ-15 дней по количеству запросов \n\n");
@@ -119,6 +231,41 @@ public class ReportFormatter {
             buildTable(stats.countRequestsPerDay(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40, FORMAT_10, false));
         report.append(ADOC_BORDER_1);
 
+        if (arguments.hllPrecision() > 0) {
+            report.append("\n");
+            report.append("== Топ-15 дней по количеству уникальных IP-адресов \n\n");
+            report.append(ADOC_BORDER_1);
+            report.append(ADOC_UNIQUE_PER_DAY);
+            report.append(buildTable(stats.uniqueIpAddressesPerDay(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40,
+                FORMAT_10, false));
+            report.append(ADOC_BORDER_2);
+
+            report.append("== Топ-15 ресурсов по количеству уникальных посетителей \n\n");
+            report.append(ADOC_BORDER_1);
+            report.append(ADOC_UNIQUE_PER_RESOURCE);
+            report.append(buildTable(stats.uniqueVisitorsPerResource(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40,
+                FORMAT_10, false));
+            report.append(ADOC_BORDER_1);
+        }
+
+        if (arguments.ipBitmaps() != null) {
+            report.append("\n");
+            report.append("== Уникальные IPv4-адреса по дням \n\n");
+            report.append(ADOC_BORDER_1);
+            report.append(ADOC_UNIQUE_PER_DAY);
+            report.append(buildTable(stats.uniqueIpv4PerDay(), null, Config.DESC, FORMAT_40, FORMAT_10, false));
+            report.append(ADOC_BORDER_1);
+        }
+        if (!stats.uniqueIpv4PerResource().isEmpty()) {
+            report.append("\n");
+            report.append("== Топ-15 ресурсов по количеству уникальных IPv4-адресов \n\n");
+            report.append(ADOC_BORDER_1);
+            report.append(ADOC_UNIQUE_PER_RESOURCE);
+            report.append(buildTable(stats.uniqueIpv4PerResource(), Config.LIMIT_DEFAULT, Config.DESC, FORMAT_40,
+                FORMAT_10, false));
+            report.append(ADOC_BORDER_1);
+        }
+
         return report.toString();
     }
 
@@ -148,6 +295,38 @@ public class ReportFormatter {
         return sb.toString();
     }
 
+    /**
+     * Топ-15 значений с верхней оценкой частоты и погрешностью: настоящая частота не меньше разности.
+     */
+    private static String buildBoundedTable(
+        Map<String, Long> map,
+        Map<String, Long> errors,
+        String order,
+        boolean isMarkdown
+    ) {
+        StringBuilder sb = new StringBuilder();
+        Comparator<Map.Entry<String, Long>> sortedMap =
+            order != null && order.equalsIgnoreCase(Config.ASC) ? Map.Entry.comparingByValue()
+                : Map.Entry.<String, Long>comparingByValue().reversed();
+        String format = isMarkdown ? "| %-40s | %-10d   | %-10d   |\n" : "| %-40s | %-10d   | %-10d\n";
+        map.entrySet().stream()
+            .sorted(sortedMap)
+            .limit(Config.LIMIT_DEFAULT)
+            .forEach(entry -> sb.append(String.format(format, entry.getKey(), entry.getValue(),
+                errors.getOrDefault(entry.getKey(), 0L))));
+        return sb.toString();
+    }
+
+    private static Map<Double, Double> percentiles(LogStatistics stats) {
+        return stats.responseSizePercentiles().isEmpty()
+            ? Map.of(Config.PERCENTILE_DEFAULT, stats.responseSizePercentile95())
+            : stats.responseSizePercentiles();
+    }
+
+    private static String percentileLabel(double percentile, String name) {
+        return BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString() + "-й " + name + " размера";
+    }
+
     private static String getDate(LocalDateTime date) {
         return date != null ? date.toString() : " - ";
     }
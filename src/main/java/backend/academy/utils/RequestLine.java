@@ -0,0 +1,106 @@
+package backend.academy.utils;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Разбиение строки запроса {@code "GET /path?query HTTP/1.1"} на метод, путь, параметры и протокол.
+ * Метод - до первого пробела, протокол - после последнего (если пробелов больше одного),
+ * путь и параметры разделяются первым {@code '?'}. Отсутствующая часть - пустая строка.
+ */
+@UtilityClass
+public class RequestLine {
+
+    public static final int REQUEST = -1;
+
+    public static final int METHOD = 0;
+
+    public static final int PATH = 2;
+
+    public static final int QUERY = 4;
+
+    public static final int PROTOCOL = 6;
+
+    public static final int LENGTH = 8;
+
+    private static final byte SPACE = ' ';
+
+    private static final byte QUESTION = '?';
+
+    public static int partCode(String part) {
+        return switch (part.toLowerCase()) {
+            case "request" -> REQUEST;
+            case "method" -> METHOD;
+            case "path" -> PATH;
+            case "query" -> QUERY;
+            case "protocol" -> PROTOCOL;
+            default -> throw new IllegalArgumentException("Неизвестная часть запроса: " + part);
+        };
+    }
+
+    /**
+     * Записывает в {@code parts}, начиная с {@code offset}, пары [начало, конец) для каждой части
+     * строки запроса из диапазона [from, to) буфера {@code line}.
+     */
+    public static void split(byte[] line, int from, int to, int[] parts, int offset) {
+        int methodEnd = indexOf(line, from, to, SPACE);
+        if (methodEnd < 0) {
+            set(parts, offset + METHOD, from, to);
+            set(parts, offset + PATH, to, to);
+            set(parts, offset + QUERY, to, to);
+            set(parts, offset + PROTOCOL, to, to);
+            return;
+        }
+        int targetStart = methodEnd + 1;
+        int lastSpace = lastIndexOf(line, targetStart, to);
+        int targetEnd = lastSpace < 0 ? to : lastSpace;
+        int question = indexOf(line, targetStart, targetEnd, QUESTION);
+        set(parts, offset + METHOD, from, methodEnd);
+        set(parts, offset + PATH, targetStart, question < 0 ? targetEnd : question);
+        set(parts, offset + QUERY, question < 0 ? targetEnd : question + 1, targetEnd);
+        set(parts, offset + PROTOCOL, lastSpace < 0 ? to : lastSpace + 1, to);
+    }
+
+    /**
+     * Часть строки запроса по коду ({@link #REQUEST} - вся строка); разбор без регулярных выражений.
+     */
+    public static String part(String request, int part) {
+        int methodEnd = request.indexOf(SPACE);
+        if (methodEnd < 0) {
+            return part == METHOD || part == REQUEST ? request : "";
+        }
+        int lastSpace = request.lastIndexOf(SPACE);
+        int targetEnd = lastSpace > methodEnd ? lastSpace : request.length();
+        int question = request.indexOf(QUESTION, methodEnd + 1);
+        int pathEnd = question < 0 || question >= targetEnd ? targetEnd : question;
+        return switch (part) {
+            case METHOD -> request.substring(0, methodEnd);
+            case PATH -> request.substring(methodEnd + 1, pathEnd);
+            case QUERY -> pathEnd == targetEnd ? "" : request.substring(pathEnd + 1, targetEnd);
+            case PROTOCOL -> lastSpace > methodEnd ? request.substring(lastSpace + 1) : "";
+            default -> request;
+        };
+    }
+
+    private static void set(int[] parts, int index, int from, int to) {
+        parts[index] = from;
+        parts[index + 1] = to;
+    }
+
+    private static int indexOf(byte[] line, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] line, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (line[i] == SPACE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,39 @@
+package backend.academy.utils;
+
+/**
+ * Побайтовый поиск; используется, когда модуль {@code jdk.incubator.vector} недоступен.
+ */
+public class ScalarByteScanner implements ByteScanner {
+
+    @Override
+    public int indexOf(byte[] buf, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfAny(byte[] buf, int from, int to, byte first, byte second) {
+        for (int i = from; i < to; i++) {
+            byte value = buf[i];
+            if (value == first || value == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfLineBreakOrNonAscii(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte value = buf[i];
+            if (value == '\n' || value == '\r' || value < 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,42 @@
+package backend.academy.utils;
+
+import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Поток поверх участка отображенной в память области; данные копируются в буфер читателя без системных вызовов.
+ */
+class SegmentInputStream extends InputStream {
+
+    private final MemorySegment segment;
+
+    private long position;
+
+    SegmentInputStream(MemorySegment segment) {
+        this.segment = segment;
+    }
+
+    @Override
+    public int read() {
+        if (position >= segment.byteSize()) {
+            return -1;
+        }
+        return Byte.toUnsignedInt(segment.get(ValueLayout.JAVA_BYTE, position++));
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        long remaining = segment.byteSize() - position;
+        if (remaining <= 0) {
+            return -1;
+        }
+        int count = (int) Math.min(length, remaining);
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+}
@@ -0,0 +1,136 @@
+package backend.academy.utils;
+
+import backend.academy.dto.Arguments;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.ZoneOffset;
+
+/**
+ * Поиск участка упорядоченного по времени файла, в котором могут быть записи из {@code --from/--to}.
+ * Начало и конец участка ищутся двоичным поиском по смещениям: середина выравнивается на начало строки,
+ * берется время первой разобранной строки после нее. Записи могут идти не строго по времени, поэтому
+ * границы расширяются на {@code --time-tolerance}. Если время в нескольких точках файла убывает больше
+ * допуска, файл считается неупорядоченным и читается целиком. Экземпляр не потокобезопасен.
+ */
+final class TimeSeek {
+
+    /**
+     * Участок, который дешевле прочитать подряд, чем продолжать поиск.
+     */
+    static final long SCAN_LENGTH = 64L * 1024;
+
+    private static final int ORDER_SAMPLES = 8;
+
+    private final TimestampProbe probe;
+
+    private final long lower;
+
+    private final long upper;
+
+    private final long tolerance;
+
+    TimeSeek(Arguments arguments) {
+        this.probe = new TimestampProbe(arguments);
+        this.tolerance = arguments.timeTolerance();
+        this.lower = arguments.from() == null ? Long.MIN_VALUE
+            : arguments.from().toEpochSecond(ZoneOffset.UTC) - tolerance;
+        this.upper = arguments.to() == null ? Long.MAX_VALUE
+            : arguments.to().toEpochSecond(ZoneOffset.UTC) + tolerance + 1;
+    }
+
+    private boolean isBounded() {
+        return lower != Long.MIN_VALUE || upper != Long.MAX_VALUE;
+    }
+
+    /**
+     * Участок [start, end) сегмента {@code segment}, начинающегося с начала строки; граница - начало строки.
+     */
+    long[] window(MemorySegment segment) {
+        long size = segment.byteSize();
+        if (!isBounded() || size <= SCAN_LENGTH || !isOrdered(segment)) {
+            return new long[] {0, size};
+        }
+        long start = lower == Long.MIN_VALUE ? 0 : firstAtOrAfter(segment, 0, size, lower, true);
+        long end = upper == Long.MAX_VALUE ? size : firstAtOrAfter(segment, start, size, upper, false);
+        return new long[] {start, end};
+    }
+
+    /**
+     * Начало первой строки в [from, to), время которой не меньше {@code threshold}, или {@code to}.
+     * Если рядом с серединой нет разобранных строк, граница сдвигается так, чтобы участок только увеличился:
+     * для начала участка - влево ({@code unknownAfter}), для конца - вправо. По той же причине начало участка,
+     * в остатке которого не разобрана ни одна строка, - левая граница остатка.
+     */
+    private long firstAtOrAfter(MemorySegment segment, long from, long to, long threshold, boolean unknownAfter) {
+        long lo = from;
+        long hi = to;
+        while (hi - lo > SCAN_LENGTH) {
+            long mid = MappedLogReader.alignToLine(segment, lo + (hi - lo) / 2, hi);
+            if (mid >= hi) {
+                break;
+            }
+            long[] line = nextTimestamp(segment, mid, hi);
+            boolean after = line[1] == TimestampProbe.NONE ? unknownAfter : line[1] >= threshold;
+            if (after) {
+                hi = mid;
+            } else {
+                lo = line[0];
+            }
+        }
+        long start = lo;
+        boolean parsed = false;
+        while (start < hi) {
+            long end = lineEnd(segment, start, hi);
+            long epochSecond = probe.parse(segment, start, end);
+            if (epochSecond != TimestampProbe.NONE && epochSecond >= threshold) {
+                return start;
+            }
+            parsed |= epochSecond != TimestampProbe.NONE;
+            start = Math.min(end + 1, hi);
+        }
+        return unknownAfter && !parsed ? lo : hi;
+    }
+
+    /**
+     * Начало следующей строки и время первой разобранной строки, начинающейся в [from, to). Просматривается
+     * не больше {@link #SCAN_LENGTH} байт; если разобранной строки нет, время равно {@link TimestampProbe#NONE}.
+     */
+    private long[] nextTimestamp(MemorySegment segment, long from, long to) {
+        long limit = Math.min(to, from + SCAN_LENGTH);
+        long start = from;
+        while (start < limit) {
+            long end = lineEnd(segment, start, to);
+            long next = Math.min(end + 1, to);
+            long epochSecond = probe.parse(segment, start, end);
+            if (epochSecond != TimestampProbe.NONE) {
+                return new long[] {next, epochSecond};
+            }
+            start = next;
+        }
+        return new long[] {start, TimestampProbe.NONE};
+    }
+
+    /**
+     * Упорядочен ли файл: время в нескольких равноотстоящих точках не убывает больше чем на допуск.
+     */
+    private boolean isOrdered(MemorySegment segment) {
+        long size = segment.byteSize();
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < ORDER_SAMPLES; i++) {
+            long position = i == 0 ? 0 : MappedLogReader.alignToLine(segment, size * i / ORDER_SAMPLES, size);
+            long[] line = nextTimestamp(segment, position, size);
+            if (line[1] != TimestampProbe.NONE) {
+                if (previous != Long.MIN_VALUE && line[1] < previous - tolerance) {
+                    return false;
+                }
+                previous = Math.max(previous, line[1]);
+            }
+        }
+        return true;
+    }
+
+    private static long lineEnd(MemorySegment segment, long from, long to) {
+        long next = MappedLogReader.alignToLine(segment, from, to);
+        return next > from && segment.get(ValueLayout.JAVA_BYTE, next - 1) == '\n' ? next - 1 : to;
+    }
+}
@@ -0,0 +1,271 @@
+package backend.academy.utils;
+
+import backend.academy.config.Config;
+import backend.academy.dto.Arguments;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Интервал времени записей файла для отбора файлов по {@code --from/--to}. Интервал берется из первой и последней
+ * строки файла (для сжатых файлов - только из первой) или из даты в пути: {@code logs/2023/},
+ * {@code 2024/05/}, {@code access-2024-05-17.log}, {@code access.log-20240517}. Границы расширяются на допуск
+ * ({@code --time-tolerance} для строк, сутки для даты в пути), потому что записи в логе идут не строго
+ * по времени, а файл с датой в имени может содержать соседние сутки.
+ * Интервалы запоминаются для каждого файла (по размеру и времени изменения) и могут сохраняться между запусками.
+ */
+@Slf4j
+@SuppressWarnings("MagicNumber")
+public class TimeSpanIndex {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final int SAMPLE_LENGTH = 64 * 1024;
+
+    private static final Pattern DAY =
+        Pattern.compile("(?<![0-9A-Za-z])((?:19|20)\\d{2})([-_./]?)(\\d{2})\\2(\\d{2})(?!\\d)");
+
+    private static final Pattern MONTH = Pattern.compile("(?<![0-9A-Za-z])((?:19|20)\\d{2})[-_/](\\d{2})(?!\\d)");
+
+    private static final Pattern YEAR = Pattern.compile("(?<![0-9A-Za-z])((?:19|20)\\d{2})(?![0-9A-Za-z])");
+
+    private final Arguments arguments;
+
+    private final long tolerance;
+
+    private final Path cacheFile;
+
+    private final Map<String, CachedSpan> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Создает индекс и загружает сохраненные интервалы, если файл кэша есть.
+     *
+     * @param arguments формат лога и допуск {@code --time-tolerance}
+     * @param cacheFile файл для сохранения интервалов между запусками или {@code null}
+     */
+    public TimeSpanIndex(Arguments arguments, Path cacheFile) {
+        this.arguments = arguments;
+        this.tolerance = arguments.timeTolerance();
+        this.cacheFile = cacheFile;
+        if (cacheFile != null && Files.exists(cacheFile)) {
+            try {
+                cache.putAll(MAPPER.readValue(cacheFile.toFile(), new TypeReference<Map<String, CachedSpan>>() {
+                }));
+            } catch (IOException e) {
+                log.debug("Кэш интервалов {} не прочитан, интервалы будут определены заново", cacheFile, e);
+            }
+        }
+    }
+
+    /**
+     * Может ли файл содержать записи из интервала [from, to] секунд эпохи.
+     */
+    public boolean mayContain(Path file, long from, long to) {
+        Span span = span(file);
+        return span.to() >= from && span.from() <= to;
+    }
+
+    public Span span(Path file) {
+        String key = file.toAbsolutePath().normalize().toString();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            CachedSpan cached = cache.get(key);
+            if (cached != null && cached.size() == attributes.size() && cached.modified() == modified
+                && cached.tolerance() == tolerance) {
+                return cached.span();
+            }
+            Span span = measure(file, attributes.size());
+            cache.put(key, new CachedSpan(attributes.size(), modified, tolerance, span));
+            return span;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка при чтении файла: " + file, e);
+        }
+    }
+
+    public void save() {
+        if (cacheFile == null) {
+            return;
+        }
+        Path directory = cacheFile.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+            try {
+                MAPPER.writeValue(temp.toFile(), new TreeMap<>(cache));
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка при записи кэша интервалов: " + cacheFile, e);
+        }
+    }
+
+    private Span measure(Path file, long size) throws IOException {
+        Span path = pathSpan(file.toString());
+        if (size == 0) {
+            return Span.EMPTY;
+        }
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, SAMPLE_LENGTH), arena);
+            byte[] headBytes = head.toArray(ValueLayout.JAVA_BYTE);
+            if (Decompression.detect(headBytes, headBytes.length) != Decompression.Format.NONE) {
+                long first = firstTimestamp(decodedHead(file), false);
+                return first == TimestampProbe.NONE ? path : new Span(first - tolerance, path.to());
+            }
+            long first = firstTimestamp(headBytes, size <= SAMPLE_LENGTH);
+            long tailFrom = Math.max(0, size - SAMPLE_LENGTH);
+            byte[] tail = channel.map(FileChannel.MapMode.READ_ONLY, tailFrom, size - tailFrom, arena)
+                .toArray(ValueLayout.JAVA_BYTE);
+            long last = lastTimestamp(tail, tailFrom == 0);
+            if (first == TimestampProbe.NONE || last == TimestampProbe.NONE) {
+                return path;
+            }
+            return new Span(Math.min(first, last) - tolerance, Math.max(first, last) + tolerance);
+        }
+    }
+
+    private static byte[] decodedHead(Path file) throws IOException {
+        try (InputStream in = Decompression.decode(Files.newInputStream(file))) {
+            return in.readNBytes(SAMPLE_LENGTH);
+        }
+    }
+
+    /**
+     * Время первой разобранной строки образца начала файла или {@link TimestampProbe#NONE}. Если образец
+     * короче файла, последняя строка без \n может быть обрезана и не учитывается.
+     */
+    private long firstTimestamp(byte[] sample, boolean whole) {
+        TimestampProbe probe = new TimestampProbe(arguments);
+        int start = 0;
+        while (start < sample.length) {
+            int end = indexOf(sample, start);
+            if (end < 0 && !whole) {
+                break;
+            }
+            end = end < 0 ? sample.length : end;
+            long epochSecond = probe.parse(sample, start, end);
+            if (epochSecond != TimestampProbe.NONE) {
+                return epochSecond;
+            }
+            start = end + 1;
+        }
+        return TimestampProbe.NONE;
+    }
+
+    /**
+     * Время последней разобранной строки образца конца файла или {@link TimestampProbe#NONE}. Если образец
+     * короче файла, первая строка может быть обрезана и не учитывается.
+     */
+    private long lastTimestamp(byte[] sample, boolean whole) {
+        TimestampProbe probe = new TimestampProbe(arguments);
+        int end = sample.length > 0 && sample[sample.length - 1] == '\n' ? sample.length - 1 : sample.length;
+        while (end > 0) {
+            int start = end;
+            while (start > 0 && sample[start - 1] != '\n') {
+                start--;
+            }
+            if (start == 0 && !whole) {
+                break;
+            }
+            long epochSecond = probe.parse(sample, start, end);
+            if (epochSecond != TimestampProbe.NONE) {
+                return epochSecond;
+            }
+            end = start - 1;
+        }
+        return TimestampProbe.NONE;
+    }
+
+    private static int indexOf(byte[] sample, int from) {
+        for (int i = from; i < sample.length; i++) {
+            if (sample[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Интервал по самой точной дате в пути (день, месяц или год) с допуском в сутки
+     * или неограниченный интервал, если даты в пути нет.
+     */
+    static Span pathSpan(String path) {
+        String normalized = path.replace('\\', '/');
+        MatchResult day = last(DAY, normalized);
+        if (day != null) {
+            LocalDate date = date(day.group(1), day.group(3), day.group(4));
+            if (date != null) {
+                return span(date, date.plusDays(1));
+            }
+        }
+        MatchResult month = last(MONTH, normalized);
+        if (month != null) {
+            LocalDate date = date(month.group(1), month.group(2), "01");
+            if (date != null) {
+                return span(date, date.plusMonths(1));
+            }
+        }
+        MatchResult year = last(YEAR, normalized);
+        if (year != null) {
+            LocalDate date = LocalDate.of(Integer.parseInt(year.group(1)), 1, 1);
+            return span(date, date.plusYears(1));
+        }
+        return Span.UNKNOWN;
+    }
+
+    private static Span span(LocalDate from, LocalDate to) {
+        long slack = Config.PATH_DATE_TOLERANCE.toSeconds();
+        return new Span(from.atStartOfDay().toEpochSecond(ZoneOffset.UTC) - slack,
+            to.atStartOfDay().toEpochSecond(ZoneOffset.UTC) + slack);
+    }
+
+    private static MatchResult last(Pattern pattern, String path) {
+        return pattern.matcher(path).results().reduce((first, second) -> second).orElse(null);
+    }
+
+    private static LocalDate date(String year, String month, String day) {
+        int monthValue = Integer.parseInt(month);
+        int dayValue = Integer.parseInt(day);
+        if (monthValue < 1 || monthValue > 12 || dayValue < 1
+            || dayValue > YearMonth.of(Integer.parseInt(year), monthValue).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(Integer.parseInt(year), monthValue, dayValue);
+    }
+
+    /**
+     * Интервал [from, to] в секундах эпохи.
+     */
+    public record Span(long from, long to) {
+
+        public static final Span UNKNOWN = new Span(Long.MIN_VALUE, Long.MAX_VALUE);
+
+        public static final Span EMPTY = new Span(Long.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    public record CachedSpan(long size, long modified, long tolerance, Span span) {
+    }
+}
@@ -0,0 +1,152 @@
+package backend.academy.utils;
+
+import backend.academy.config.Config;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Декодер времени в фиксированном формате nginx {@code dd/MMM/yyyy:HH:mm:ss Z}.
+ * Цифры разбираются арифметически, смещение учитывается, а результат для повторяющейся
+ * подряд метки времени берется из предыдущего вызова. Экземпляр не потокобезопасен.
+ */
+@SuppressWarnings("MagicNumber")
+public class TimestampDecoder {
+
+    public static final int LENGTH = 26;
+
+    public static final long SECONDS_PER_DAY = 86_400L;
+
+    private static final String[] MONTHS =
+        {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private final byte[] previous = new byte[LENGTH];
+
+    private int previousLength = -1;
+
+    private long previousEpochSecond;
+
+    private LocalDateTime previousDateTime;
+
+    private long previousDay = Long.MIN_VALUE;
+
+    private String previousDayKey;
+
+    public LocalDateTime decode(byte[] buf, int from, int to) {
+        long epochSecond = decodeEpochSecond(buf, from, to);
+        if (previousDateTime == null) {
+            previousDateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        }
+        return previousDateTime;
+    }
+
+    public long decodeEpochSecond(byte[] buf, int from, int to) {
+        int length = to - from;
+        if (length == previousLength && Arrays.equals(buf, from, to, previous, 0, length)) {
+            return previousEpochSecond;
+        }
+        long epochSecond = parse(buf, from, to);
+        System.arraycopy(buf, from, previous, 0, length);
+        previousLength = length;
+        previousEpochSecond = epochSecond;
+        previousDateTime = null;
+        return epochSecond;
+    }
+
+    /**
+     * Ключ дня в формате {@code dd/MMM/yyyy} (UTC); строка для одного и того же дня создается один раз.
+     */
+    public String dayKey(long epochSecond) {
+        long day = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        if (day != previousDay) {
+            previousDay = day;
+            previousDayKey = formatDay(day);
+        }
+        return previousDayKey;
+    }
+
+    public static String formatDay(long epochDay) {
+        return Config.DATE_FORMATTER.format(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static long parse(byte[] buf, int from, int to) {
+        if (!hasLayout(buf, from, to)) {
+            throw error(buf, from, to, 0);
+        }
+        int day = digits(buf, from, 2, to);
+        int month = month(buf, from + 3, to);
+        int year = digits(buf, from + 7, 4, to);
+        int hour = digits(buf, from + 12, 2, to);
+        int minute = digits(buf, from + 15, 2, to);
+        int second = digits(buf, from + 18, 2, to);
+        int offsetSign = switch (buf[from + 21]) {
+            case '+' -> 1;
+            case '-' -> -1;
+            default -> throw error(buf, from, to, 21);
+        };
+        int offsetHours = digits(buf, from + 22, 2, to);
+        int offsetMinutes = digits(buf, from + 24, 2, to);
+
+        if (day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            throw error(buf, from, to, 0);
+        }
+        if (offsetHours > 18 || offsetMinutes > 59) {
+            throw error(buf, from, to, 22);
+        }
+        int maxDay = month == 2 && isLeapYear(year) ? 29 : DAYS_IN_MONTH[month - 1];
+        long epochDay = daysFromCivil(year, month, Math.min(day, maxDay));
+        int offsetSeconds = offsetSign * (offsetHours * 3600 + offsetMinutes * 60);
+        return epochDay * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second - offsetSeconds;
+    }
+
+    public static boolean hasLayout(byte[] buf, int from, int to) {
+        return to - from == LENGTH
+            && buf[from + 2] == '/' && buf[from + 6] == '/' && buf[from + 11] == ':'
+            && buf[from + 14] == ':' && buf[from + 17] == ':' && buf[from + 20] == ' ';
+    }
+
+    private static int digits(byte[] buf, int pos, int count, int to) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw error(buf, to - LENGTH, to, i - (to - LENGTH));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int month(byte[] buf, int pos, int to) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            String name = MONTHS[i];
+            if (buf[pos] == name.charAt(0) && buf[pos + 1] == name.charAt(1) && buf[pos + 2] == name.charAt(2)) {
+                return i + 1;
+            }
+        }
+        throw error(buf, to - LENGTH, to, 3);
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static DateTimeParseException error(byte[] buf, int from, int to, int index) {
+        String text = new String(buf, from, Math.max(0, to - from), StandardCharsets.UTF_8);
+        return new DateTimeParseException("Text '" + text + "' could not be parsed at index " + index, text, index);
+    }
+}
@@ -0,0 +1,70 @@
+package backend.academy.utils;
+
+import backend.academy.dto.Arguments;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Время записи отдельной строки: строка разбирается тем же способом, что и при анализе
+ * ({@code --log-format}, {@code --parser}, {@code --json-fields}), но без фильтров.
+ * Экземпляр не потокобезопасен.
+ */
+final class TimestampProbe implements LogEventSink {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private final LogLineHandler handler;
+
+    private long epochSecond;
+
+    TimestampProbe(Arguments arguments) {
+        Arguments parsing = new Arguments();
+        parsing.logFormat(arguments.logFormat());
+        parsing.parser(arguments.parser());
+        parsing.jsonFields(arguments.jsonFields());
+        this.handler = new LogLineHandler(parsing, this);
+    }
+
+    /**
+     * Время записи в секундах эпохи или {@link #NONE}, если строка не разобрана.
+     */
+    long parse(byte[] line, int from, int to) {
+        epochSecond = NONE;
+        try {
+            handler.onLine(line, from, to);
+        } catch (RuntimeException e) {
+            return NONE;
+        }
+        return epochSecond;
+    }
+
+    long parse(MemorySegment segment, long from, long to) {
+        byte[] line = segment.asSlice(from, to - from).toArray(ValueLayout.JAVA_BYTE);
+        return parse(line, 0, line.length);
+    }
+
+    @Override
+    public void onAddress(byte[] line, int from, int to) {
+    }
+
+    @Override
+    public void onTimestamp(long epochSecond) {
+        this.epochSecond = epochSecond;
+    }
+
+    @Override
+    public void onRequest(byte[] line, int from, int to) {
+    }
+
+    @Override
+    public void onStatus(int status) {
+    }
+
+    @Override
+    public void onBytes(long bodyBytesSent) {
+    }
+
+    @Override
+    public void onAgent(byte[] line, int from, int to) {
+    }
+}
@@ -0,0 +1,263 @@
+package backend.academy.utils;
+
+import backend.academy.exceptions.ResourseNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Дисковый кэш логов, загруженных по URL. Ключ - SHA-256 адреса; тело хранится сжатым gzip,
+ * рядом лежат валидаторы ответа ({@code ETag}, {@code Last-Modified}), длина и последние байты содержимого.
+ * При повторном открытии отправляется один условный запрос: 304 - кэш актуален; если файл только вырос,
+ * сервер с поддержкой {@code Range} присылает лишь дописанные байты, и они добавляются в кэш новым членом gzip.
+ * Совпадение последних байтов кэша с началом ответа проверяет, что файл именно дописан, а не заменен;
+ * иначе файл загружается заново.
+ */
+public class UrlCache {
+
+    private static final int TAIL_LENGTH = 4096;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int SUCCESS = 200;
+
+    private static final int PARTIAL_CONTENT = 206;
+
+    private static final int NOT_MODIFIED = 304;
+
+    private static final int REDIRECT = 300;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final String URL = "url";
+
+    private static final String ETAG = "etag";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private static final String LENGTH = "length";
+
+    private static final String TAIL = "tail";
+
+    private static final String APPENDABLE = "appendable";
+
+    private final Path directory;
+
+    private final HttpClient client;
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public UrlCache(Path directory, HttpClient client) {
+        this.directory = directory;
+        this.client = client;
+    }
+
+    /**
+     * Проверяет актуальность записи для {@code url}, при необходимости обновляет ее
+     * и возвращает поток с полным (распакованным) содержимым.
+     */
+    public InputStream open(URI url) throws IOException {
+        String key = key(url);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            Files.createDirectories(directory);
+            Properties entry = load(key, url);
+            if (entry == null || !revalidate(url, key, entry)) {
+                download(url, key);
+            }
+        }
+        return Decompression.decode(Files.newInputStream(data(key)));
+    }
+
+    /**
+     * Условный запрос; возвращает {@code false}, если запись нужно загрузить заново.
+     */
+    private boolean revalidate(URI url, String key, Properties entry) throws IOException {
+        long length = Long.parseLong(entry.getProperty(LENGTH));
+        byte[] tail = Base64.getDecoder().decode(entry.getProperty(TAIL));
+        boolean appendable = Boolean.parseBoolean(entry.getProperty(APPENDABLE)) && length > 0;
+        HttpRequest.Builder request = HttpRequest.newBuilder(url).GET();
+        if (entry.getProperty(ETAG) != null) {
+            request.header("If-None-Match", entry.getProperty(ETAG));
+        }
+        if (entry.getProperty(LAST_MODIFIED) != null) {
+            request.header("If-Modified-Since", entry.getProperty(LAST_MODIFIED));
+        }
+        long from = length - tail.length;
+        if (appendable) {
+            request.header("Range", "bytes=" + from + "-");
+        }
+        HttpResponse<InputStream> response = send(url, request);
+        try (InputStream body = response.body()) {
+            return switch (response.statusCode()) {
+                case NOT_MODIFIED -> true;
+                case PARTIAL_CONTENT -> appendable && append(key, entry, response, body, from, tail);
+                case SUCCESS -> {
+                    store(url, key, response, body);
+                    yield true;
+                }
+                default -> false;
+            };
+        }
+    }
+
+    private boolean append(String key, Properties entry, HttpResponse<InputStream> response, InputStream body,
+        long from, byte[] tail) throws IOException {
+        String range = response.headers().firstValue("Content-Range").orElse("");
+        if (!range.startsWith("bytes " + from + "-") || !Arrays.equals(tail, body.readNBytes(tail.length))) {
+            return false;
+        }
+        long length = Long.parseLong(entry.getProperty(LENGTH));
+        byte[] newTail = tail;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read = body.read(buffer);
+        if (read > 0) {
+            try (OutputStream out = new GZIPOutputStream(
+                Files.newOutputStream(data(key), StandardOpenOption.APPEND), BUFFER_SIZE)) {
+                while (read > 0) {
+                    out.write(buffer, 0, read);
+                    length += read;
+                    newTail = tail(newTail, buffer, read);
+                    read = body.read(buffer);
+                }
+            }
+        }
+        save(key, entry(URI.create(entry.getProperty(URL)), response.headers(), length, newTail, true));
+        return true;
+    }
+
+    private void download(URI url, String key) throws IOException {
+        store(url, key, send(url, HttpRequest.newBuilder(url).header("Accept-Encoding", "gzip")));
+    }
+
+    private void store(URI url, String key, HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.body()) {
+            store(url, key, response, body);
+        }
+    }
+
+    private void store(URI url, String key, HttpResponse<InputStream> response, InputStream body)
+        throws IOException {
+        Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+        try {
+            if (response.statusCode() < SUCCESS || response.statusCode() >= REDIRECT) {
+                throw new ResourseNotFoundException("Ресурс по адресу: " + url + " не доступен.");
+            }
+            byte[] header = body.readNBytes(Decompression.HEADER_LENGTH);
+            boolean appendable = response.headers().firstValue("Content-Encoding").isEmpty()
+                && Decompression.detect(header, header.length) == Decompression.Format.NONE;
+            long length = 0;
+            byte[] tail = new byte[0];
+            try (InputStream in = Decompression.decode(new SequenceInputStream(new ByteArrayInputStream(header), body));
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    out.write(buffer, 0, read);
+                    length += read;
+                    tail = tail(tail, buffer, read);
+                }
+            }
+            Files.move(temp, data(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            save(key, entry(url, response.headers(), length, tail, appendable));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private HttpResponse<InputStream> send(URI url, HttpRequest.Builder request) throws IOException {
+        try {
+            return client.send(request.GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка прервана: " + url);
+        }
+    }
+
+    private static Properties entry(URI url, HttpHeaders headers, long length, byte[] tail, boolean appendable) {
+        Properties entry = new Properties();
+        entry.setProperty(URL, url.toString());
+        headers.firstValue("ETag").ifPresent(etag -> entry.setProperty(ETAG, etag));
+        headers.firstValue("Last-Modified").ifPresent(date -> entry.setProperty(LAST_MODIFIED, date));
+        entry.setProperty(LENGTH, Long.toString(length));
+        entry.setProperty(TAIL, Base64.getEncoder().encodeToString(tail));
+        entry.setProperty(APPENDABLE, Boolean.toString(appendable));
+        return entry;
+    }
+
+    private Properties load(String key, URI url) {
+        Path meta = meta(key);
+        if (!Files.exists(meta) || !Files.exists(data(key))) {
+            return null;
+        }
+        Properties entry = new Properties();
+        try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+            entry.load(reader);
+            Long.parseLong(entry.getProperty(LENGTH));
+            Base64.getDecoder().decode(entry.getProperty(TAIL));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        return url.toString().equals(entry.getProperty(URL)) ? entry : null;
+    }
+
+    private void save(String key, Properties entry) throws IOException {
+        Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                entry.store(writer, null);
+            }
+            Files.move(temp, meta(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path data(String key) {
+        return directory.resolve(key + ".log.gz");
+    }
+
+    private Path meta(String key) {
+        return directory.resolve(key + ".properties");
+    }
+
+    private static byte[] tail(byte[] previous, byte[] buffer, int length) {
+        int keep = Math.min(previous.length, TAIL_LENGTH - Math.min(length, TAIL_LENGTH));
+        int take = Math.min(length, TAIL_LENGTH);
+        byte[] tail = new byte[keep + take];
+        System.arraycopy(previous, previous.length - keep, tail, 0, keep);
+        System.arraycopy(buffer, length - take, tail, keep, take);
+        return tail;
+    }
+
+    private static String key(URI url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
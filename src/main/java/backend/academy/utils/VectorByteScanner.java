@@ -0,0 +1,58 @@
+package backend.academy.utils;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Поиск на Vector API: за одну итерацию сравнивается целый вектор байтов
+ * ({@link ByteVector#SPECIES_PREFERRED}, обычно 32 или 64 байта), остаток добирается побайтово.
+ * Загружается только через {@link ByteScanners}, если модуль {@code jdk.incubator.vector} подключен.
+ */
+public class VectorByteScanner implements ByteScanner {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private final ScalarByteScanner tail = new ScalarByteScanner();
+
+    @Override
+    public int indexOf(byte[] buf, int from, int to, byte value) {
+        int i = from;
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+            VectorMask<Byte> mask = ByteVector.fromArray(SPECIES, buf, i).eq(value);
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        return tail.indexOf(buf, i, to, value);
+    }
+
+    @Override
+    public int indexOfAny(byte[] buf, int from, int to, byte first, byte second) {
+        int i = from;
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+            ByteVector vector = ByteVector.fromArray(SPECIES, buf, i);
+            VectorMask<Byte> mask = vector.eq(first).or(vector.eq(second));
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        return tail.indexOfAny(buf, i, to, first, second);
+    }
+
+    @Override
+    public int indexOfLineBreakOrNonAscii(byte[] buf, int from, int to) {
+        int i = from;
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+            ByteVector vector = ByteVector.fromArray(SPECIES, buf, i);
+            VectorMask<Byte> mask = vector.compare(VectorOperators.LT, (byte) 0)
+                .or(vector.eq((byte) '\n'))
+                .or(vector.eq((byte) '\r'));
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        return tail.indexOfLineBreakOrNonAscii(buf, i, to);
+    }
+}
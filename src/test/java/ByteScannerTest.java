@@ -0,0 +1,75 @@
+import backend.academy.utils.ByteScanner;
+import backend.academy.utils.ByteScanners;
+import backend.academy.utils.LineReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ByteScannerTest {
+
+    private static final byte[] ALPHABET = "ab \"[]\n\r".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testVectorScannerMatchesScalar() {
+        ByteScanner scalar = ByteScanners.scalar();
+        ByteScanner vector = ByteScanners.vector();
+        assertNotNull(vector);
+
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            byte[] buf = new byte[random.nextInt(300)];
+            for (int i = 0; i < buf.length; i++) {
+                buf[i] = random.nextInt(10) == 0 ? (byte) 0xE2 : ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            int from = buf.length == 0 ? 0 : random.nextInt(buf.length);
+            int to = from + random.nextInt(buf.length - from + 1);
+
+            for (byte value : ALPHABET) {
+                assertEquals(scalar.indexOf(buf, from, to, value), vector.indexOf(buf, from, to, value));
+            }
+            assertEquals(scalar.indexOfAny(buf, from, to, (byte) '\n', (byte) '\r'),
+                vector.indexOfAny(buf, from, to, (byte) '\n', (byte) '\r'));
+            assertEquals(scalar.indexOfLineBreakOrNonAscii(buf, from, to),
+                vector.indexOfLineBreakOrNonAscii(buf, from, to));
+        }
+    }
+
+    @Test
+    public void testLineReaderSplitsLikeBufferedReader() throws IOException {
+        String text = "first\r\nsecond\rthird\n\nlast";
+
+        assertEquals(List.of("first", "second", "third", "", "last"), readLines(text, ByteScanners.scalar()));
+        assertEquals(List.of("first", "second", "third", "", "last"), readLines(text, ByteScanners.vector()));
+    }
+
+    @Test
+    public void testLineReaderCrLfAcrossReads() throws IOException {
+        byte[] bytes = "a\r\nb\r\rc".getBytes(StandardCharsets.UTF_8);
+        InputStream oneByteAtATime = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        List<String> lines = new ArrayList<>();
+
+        LineReader.read(oneByteAtATime,
+            (line, from, to) -> lines.add(new String(line, from, to - from, StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("a", "b", "", "c"), lines);
+    }
+
+    private static List<String> readLines(String text, ByteScanner scanner) throws IOException {
+        List<String> lines = new ArrayList<>();
+        LineReader.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+            (line, from, to) -> lines.add(new String(line, from, to - from, StandardCharsets.UTF_8)), scanner);
+        return lines;
+    }
+}
@@ -0,0 +1,127 @@
+import backend.academy.LogAnalyzer;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogStatistics;
+import backend.academy.stats.StatisticsSink;
+import backend.academy.utils.Decompression;
+import backend.academy.utils.MappedLogReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DecompressionTest {
+
+    private static final String LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 304 0 \"-\" \"Debian\"";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMultiMemberGzip() throws IOException {
+        byte[] first = lines(0, 20_000);
+        byte[] second = lines(20_000, 30_000);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressed.writeBytes(gzip(first));
+        compressed.writeBytes(gzip(second));
+
+        byte[] expected = new byte[first.length + second.length];
+        System.arraycopy(first, 0, expected, 0, first.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        assertArrayEquals(expected, decode(compressed.toByteArray()));
+    }
+
+    @Test
+    public void testZipEntriesAreJoinedByLines() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(compressed)) {
+            zip.putNextEntry(new ZipEntry("logs/"));
+            zip.putNextEntry(new ZipEntry("logs/access.log.1"));
+            zip.write("first\nsecond".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("logs/access.log.2"));
+            zip.write("third\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals("first\nsecond\nthird\n", new String(decode(compressed.toByteArray()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPlainInputIsPassedThrough() throws IOException {
+        byte[] plain = lines(0, 10);
+        assertArrayEquals(plain, decode(plain));
+        assertArrayEquals(new byte[] {0x1F}, decode(new byte[] {0x1F}));
+    }
+
+    @Test
+    public void testCorruptedGzipFails() throws IOException {
+        byte[] compressed = gzip(lines(0, 10_000));
+        compressed[compressed.length / 2] ^= 0x55;
+
+        assertThrows(IOException.class, () -> decode(compressed));
+    }
+
+    @Test
+    public void testReadCompressedFiles() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lines.add(LINE.replace("93.180.71.3", "10.0." + i % 7 + "." + i % 200));
+        }
+        Path plain = tempDir.resolve("access.log");
+        Files.write(plain, lines.subList(0, 1000), StandardCharsets.UTF_8);
+        Path gzip = tempDir.resolve("access.log.1.gz");
+        Files.write(gzip, gzip(String.join("\n", lines.subList(1000, 2000)).getBytes(StandardCharsets.UTF_8)));
+        Path zip = tempDir.resolve("access.log.2.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("access.log.2"));
+            out.write(String.join("\n", lines.subList(2000, 3000)).getBytes(StandardCharsets.UTF_8));
+        }
+        Arguments arguments = new Arguments();
+
+        LogStatistics expected = new LogAnalyzer().getStats(lines.stream(), arguments);
+        LogStatistics actual;
+        try (ForkJoinPool pool = new ForkJoinPool(2)) {
+            actual = new MappedLogReader(pool, MappedLogReader.MIN_CHUNK_SIZE)
+                .read(List.of(plain, gzip, zip), arguments, StatisticsSink::new).statistics();
+        }
+
+        assertEquals(expected.totalRequests(), actual.totalRequests());
+        assertEquals(expected.ipAddresses(), actual.ipAddresses());
+        assertEquals(expected.resources(), actual.resources());
+    }
+
+    private static byte[] decode(byte[] data) throws IOException {
+        try (InputStream in = Decompression.decode(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] lines(int from, int to) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            builder.append(LINE).append(' ').append(i).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+import backend.academy.exceptions.FileNotFoundException;
+import backend.academy.utils.FileDiscovery;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FileDiscoveryTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testDoubleStarMatchesAnyDepth() throws IOException {
+        create("access.log", "a/access.log.1", "a/b/c/access.log.gz", "a/b/error.log", "d/other.txt");
+
+        assertEquals(List.of("a/access.log.1", "a/b/c/access.log.gz", "access.log"), find("**/access*.log*"));
+    }
+
+    @Test
+    public void testSingleStarStaysInOneDirectory() throws IOException {
+        create("2024/01/nginx/access.gz", "2024/02/nginx/access.gz", "2024/02/nginx/access.txt",
+            "2024/02/apache/access.gz", "2024/02/deep/nginx/access.gz");
+
+        assertEquals(List.of("2024/01/nginx/access.gz", "2024/02/nginx/access.gz"), find("2024/*/nginx/*.gz"));
+        assertEquals(List.of("2024/01/nginx/access.gz", "2024/02/nginx/access.gz", "2024/02/nginx/access.txt"),
+            find("2024/0?/nginx/*"));
+    }
+
+    @Test
+    public void testLiteralPath() throws IOException {
+        create("logs/app.txt", "logs/other.txt");
+
+        assertEquals(List.of("logs/app.txt"), find("logs/app.txt"));
+        assertThrows(FileNotFoundException.class, () -> find("logs/missing.txt"));
+        assertThrows(FileNotFoundException.class, () -> find("missing/*.txt"));
+    }
+
+    private List<String> find(String glob) {
+        try (ForkJoinPool pool = new ForkJoinPool(2)) {
+            return FileDiscovery.of(root, glob).find(pool).stream()
+                .map(path -> root.relativize(path).toString().replace('\\', '/'))
+                .toList();
+        }
+    }
+
+    private void create(String... paths) throws IOException {
+        for (String path : paths) {
+            Path file = root.resolve(path);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "");
+        }
+    }
+}
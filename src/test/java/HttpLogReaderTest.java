@@ -0,0 +1,308 @@
+import backend.academy.LogAnalyzer;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogStatistics;
+import backend.academy.exceptions.ResourseNotFoundException;
+import backend.academy.stats.StatisticsSink;
+import backend.academy.utils.HttpLogReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpLogReaderTest {
+
+    /**
+     * Размеры равномерно распределены на [0, 5000); ошибка ранга скетча KLL для 20 000 значений - около 1,65%.
+     */
+    private static final double SIZE_TOLERANCE = 0.02 * 5000;
+
+    private static final List<String> FIRST = generateLines(0, 60_000);
+
+    private static final List<String> SECOND = generateLines(60_000, 100_000);
+
+    private static final byte[] RANGED = rangedLog();
+
+    private static final String ETAG = "\"v1\"";
+
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+
+    private final AtomicInteger faults = new AtomicInteger();
+
+    private final Set<String> seenRanges = ConcurrentHashMap.newKeySet();
+
+    private final List<Long> resumedAt = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    private HttpServer server;
+
+    private String base;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/first", exchange -> serve(exchange, FIRST));
+        server.createContext("/second", exchange -> serve(exchange, SECOND));
+        server.createContext("/ranged", exchange -> serveRanges(exchange, RANGED));
+        server.createContext("/ranged.gz", exchange -> serveRanges(exchange, gzip(RANGED)));
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConcurrentDownloadsMatchLocalParsing() {
+        Arguments arguments = Arguments.parse(new String[] {"--path", base + "/first|" + base + "/second", "--threads", "2"});
+        List<String> all = new ArrayList<>(FIRST);
+        all.addAll(SECOND);
+
+        LogStatistics expected = new LogAnalyzer().getStats(all.stream(), arguments);
+        LogStatistics actual = new LogAnalyzer().loadLogs(arguments);
+
+        assertEquals(100_000, actual.totalRequests());
+        assertEquals(expected.resources(), actual.resources());
+        assertEquals(expected.ipAddresses(), actual.ipAddresses());
+        assertEquals(expected.statuses(), actual.statuses());
+        assertEquals(expected.responseSizePercentile95(), actual.responseSizePercentile95(), 1e-9);
+        assertEquals(List.of(base + "/first", base + "/second"), actual.filesNames());
+        assertEquals(2, maxActive.get());
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() {
+        Arguments arguments = Arguments.parse(new String[] {
+            "--path", base + "/first|" + base + "/second|" + base + "/first", "--threads", "1"});
+
+        LogStatistics stats = new LogAnalyzer().loadLogs(arguments);
+
+        assertEquals(160_000, stats.totalRequests());
+        assertEquals(1, maxActive.get());
+    }
+
+    @Test
+    public void testMissingResource() {
+        Arguments arguments = Arguments.parse(new String[] {"--path", base + "/first|" + base + "/missing"});
+
+        ResourseNotFoundException e =
+            assertThrows(ResourseNotFoundException.class, () -> new LogAnalyzer().loadLogs(arguments));
+        assertTrue(e.getMessage().contains("/missing"));
+    }
+
+    @Test
+    public void testRangesAreDownloadedInParallelAndResumed() throws IOException {
+        Arguments arguments = new Arguments();
+        List<String> lines = new String(RANGED, StandardCharsets.UTF_8).lines().toList();
+        LogStatistics expected = new LogAnalyzer().getStats(lines.stream(), arguments);
+
+        for (String path : new String[] {"/ranged", "/ranged.gz"}) {
+            LogStatistics actual;
+            try (ForkJoinPool pool = new ForkJoinPool(4)) {
+                actual = new HttpLogReader(HttpClient.newHttpClient(), pool, 64 * 1024)
+                    .read(List.of(URI.create(base + path)), arguments, StatisticsSink::new).statistics();
+            }
+
+            assertEquals(expected.totalRequests(), actual.totalRequests());
+            assertEquals(expected.resources(), actual.resources());
+            assertEquals(expected.ipAddresses(), actual.ipAddresses());
+            assertEquals(expected.statuses(), actual.statuses());
+            assertEquals(expected.responseSizePercentile95(), actual.responseSizePercentile95(), SIZE_TOLERANCE);
+        }
+        assertTrue(rangeRequests.get() > RANGED.length / (64 * 1024));
+        assertTrue(faults.get() > 0);
+        assertTrue(resumedAt.stream().anyMatch(start -> (start + 1) % (64 * 1024) != 0 && start % (64 * 1024) != 0));
+    }
+
+    @Test
+    public void testLargeUrlIsDownloadedInParallelRanges() {
+        byte[] line = (String.join("\n", FIRST) + "\n").getBytes(StandardCharsets.UTF_8);
+        int copies = (int) (2 * HttpLogReader.DEFAULT_RANGE_SIZE / line.length) + 1;
+        byte[] body = new byte[line.length * copies];
+        for (int i = 0; i < copies; i++) {
+            System.arraycopy(line, 0, body, i * line.length, line.length);
+        }
+        server.createContext("/large", exchange -> serveSlowRanges(exchange, body));
+        Arguments arguments = Arguments.parse(new String[] {"--path", base + "/large", "--threads", "4"});
+
+        LogStatistics stats = new LogAnalyzer().loadLogsFromUrl(arguments);
+
+        assertEquals(FIRST.size() * copies, stats.totalRequests());
+        assertTrue(maxActive.get() > 1, "диапазоны одного адреса загружаются одновременно");
+    }
+
+    @Test
+    public void testRangeBoundaryIsNotCountedAsFailure() {
+        byte[] body = (String.join("\n", FIRST.subList(0, 3000)) + "\n").getBytes(StandardCharsets.UTF_8);
+        Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        server.createContext("/boundary", exchange -> {
+            int from = Integer.parseInt(exchange.getRequestHeaders().getFirst("Range").split("[=-]")[1]);
+            if (from > 0 && from % (64 * 1024) == 0
+                && attempts.computeIfAbsent(from, key -> new AtomicInteger()).incrementAndGet() < 4) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+            } else {
+                serveSlowRanges(exchange, body);
+            }
+        });
+        Arguments arguments = new Arguments();
+
+        LogStatistics stats;
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            stats = new HttpLogReader(HttpClient.newHttpClient(), pool, 64 * 1024)
+                .read(List.of(URI.create(base + "/boundary")), arguments, StatisticsSink::new).statistics();
+        }
+
+        assertEquals(3000, stats.totalRequests(), "конец диапазона посреди строки не расходует попытку загрузки");
+        assertEquals(body.length / (64 * 1024), attempts.size());
+    }
+
+    private void serveSlowRanges(HttpExchange exchange, byte[] body) throws IOException {
+        String[] bounds = exchange.getRequestHeaders().getFirst("Range").substring("bytes=".length()).split("-");
+        int from = Integer.parseInt(bounds[0]);
+        int to = Math.min(body.length - 1, Integer.parseInt(bounds[1]));
+        int current = active.incrementAndGet();
+        maxActive.accumulateAndGet(current, Math::max);
+        try (exchange; OutputStream out = exchange.getResponseBody()) {
+            sleep();
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + to + "/" + body.length);
+            exchange.sendResponseHeaders(206, to - from + 1);
+            out.write(body, from, to - from + 1);
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private void serveRanges(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        try (exchange; OutputStream out = exchange.getResponseBody()) {
+            if (range == null || ifRange != null && !ETAG.equals(ifRange)) {
+                exchange.sendResponseHeaders(200, body.length);
+                out.write(body);
+                return;
+            }
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int from = Integer.parseInt(bounds[0]);
+            int to = Math.min(body.length - 1, Integer.parseInt(bounds[1]));
+            rangeRequests.incrementAndGet();
+            boolean rangeStart = from % (64 * 1024) == 0 || (from + 1) % (64 * 1024) == 0;
+            if (!rangeStart) {
+                resumedAt.add((long) from);
+            }
+            boolean fault = to - from > 16 && rangeStart && seenRanges.add(body.length + ":" + from);
+            if (fault && from / (64 * 1024) % 2 == 0) {
+                faults.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + to + "/" + body.length);
+            exchange.sendResponseHeaders(206, to - from + 1);
+            if (fault) {
+                faults.incrementAndGet();
+                out.write(body, from, (to - from) / 2);
+                out.flush();
+                throw new IOException("injected fault");
+            }
+            out.write(body, from, to - from + 1);
+        }
+    }
+
+    private static byte[] rangedLog() {
+        List<String> lines = generateLines(0, 20_000);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            builder.append(lines.get(i));
+            if (i % 5000 == 1) {
+                builder.append("x".repeat(150_000));
+            }
+            builder.append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void serve(HttpExchange exchange, List<String> lines) throws IOException {
+        int current = active.incrementAndGet();
+        maxActive.accumulateAndGet(current, Math::max);
+        try {
+            byte[] body = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+            String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = encoding != null && encoding.contains("gzip");
+            if (gzip) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = gzip ? new GZIPOutputStream(exchange.getResponseBody())
+                : exchange.getResponseBody()) {
+                for (int i = 0; i < body.length; i += 8192) {
+                    out.write(body, i, Math.min(8192, body.length - i));
+                    if (i % (512 * 1024) == 0) {
+                        sleep();
+                    }
+                }
+            }
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<String> generateLines(int from, int to) {
+        List<String> lines = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            lines.add(String.format("10.1.%d.%d - - [17/May/2015:08:%02d:%02d +0000] \"GET /downloads/product_%d HTTP/1.1\""
+                + " %d %d \"-\" \"agent\"", i % 50, i % 250, i % 60, i % 59, i % 7, i % 3 == 0 ? 404 : 200, i % 5000));
+        }
+        return lines;
+    }
+}
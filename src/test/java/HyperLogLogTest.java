@@ -0,0 +1,60 @@
+import backend.academy.stats.HyperLogLog;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testSmallCardinalityIsNearlyExact() {
+        HyperLogLog counter = new HyperLogLog(14);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < 1000; i++) {
+                counter.add(hash("10.0." + i / 256 + "." + i % 256));
+            }
+        }
+
+        assertEquals(1000, counter.estimate(), 5);
+        assertEquals(1000, HyperLogLog.restore(counter.state()).estimate(), 5);
+    }
+
+    @Test
+    public void testLargeCardinalityWithinStandardError() {
+        HyperLogLog counter = new HyperLogLog(14);
+        int distinct = 1_000_000;
+        for (int i = 0; i < distinct; i++) {
+            counter.add(hash("agent-" + i));
+        }
+
+        double error = 3 * 1.04 / Math.sqrt(1 << 14);
+        assertTrue(Math.abs(counter.estimate() - distinct) <= distinct * error, String.valueOf(counter.estimate()));
+    }
+
+    @Test
+    public void testMergeEqualsUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        HyperLogLog union = new HyperLogLog(12);
+        for (int i = 0; i < 50_000; i++) {
+            long hash = hash("ip-" + i);
+            (i < 30_000 ? first : second).add(hash);
+            if (i >= 20_000) {
+                first.add(hash);
+            }
+            union.add(hash);
+        }
+        HyperLogLog sparse = new HyperLogLog(12);
+        sparse.add(hash("ip-1"));
+
+        assertEquals(union.estimate(), first.merge(second).estimate());
+        assertEquals(union.estimate(), sparse.merge(union).estimate());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(14)));
+    }
+
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return HyperLogLog.hash(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,115 @@
+import backend.academy.LogAnalyzer;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogStatistics;
+import backend.academy.utils.CheckpointStore;
+import backend.academy.utils.IncrementalLogReader;
+import backend.academy.utils.MappedLogReader;
+import backend.academy.utils.RequestLine;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class IncrementalLogReaderTest {
+
+    private static final String LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 304 0 \"-\" \"Debian\"\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testOnlyAppendedBytesAreRead() throws IOException {
+        Path file = tempDir.resolve("access.log");
+        Files.writeString(file, LINE.repeat(1000));
+        assertEquals(1000, run(List.of(file), new Arguments()).totalRequests());
+
+        overwriteStatuses(file, "500");
+        append(file, LINE.repeat(200));
+        LogStatistics stats = run(List.of(file), new Arguments());
+
+        assertEquals(1200, stats.totalRequests());
+        assertNull(stats.statuses().get(500), "уже прочитанная часть не должна перечитываться");
+    }
+
+    @Test
+    public void testPartialLastLineIsNotCheckpointed() throws IOException {
+        Path file = tempDir.resolve("access.log");
+        Files.writeString(file, LINE.repeat(10) + LINE.substring(0, 30));
+        assertEquals(10, run(List.of(file), new Arguments()).totalRequests());
+
+        Files.writeString(file, LINE.repeat(10) + LINE.substring(0, LINE.length() - 1));
+        assertEquals(11, run(List.of(file), new Arguments()).totalRequests());
+
+        append(file, "\n" + LINE);
+        assertEquals(12, run(List.of(file), new Arguments()).totalRequests());
+    }
+
+    @Test
+    public void testRotationAndTruncationAreDetected() throws IOException {
+        Path file = tempDir.resolve("access.log");
+        Path other = tempDir.resolve("other.log");
+        Files.writeString(file, LINE.repeat(300));
+        Files.writeString(other, LINE.repeat(100));
+        assertEquals(400, run(List.of(file, other), new Arguments()).totalRequests());
+
+        Path rotated = tempDir.resolve("access.log.1");
+        Files.move(file, rotated);
+        overwriteStatuses(rotated, "500");
+        Files.writeString(file, LINE.repeat(50));
+        LogStatistics stats = run(List.of(file, rotated, other), new Arguments());
+        assertEquals(450, stats.totalRequests());
+        assertNull(stats.statuses().get(500), "переименованный файл должен найтись по inode");
+
+        Files.writeString(other, LINE.replace("304", "404").repeat(20), StandardOpenOption.TRUNCATE_EXISTING);
+        stats = run(List.of(file, rotated, other), new Arguments());
+        assertEquals(370, stats.totalRequests());
+        assertEquals(20L, stats.statuses().get(404));
+    }
+
+    @Test
+    public void testMatchesFullReadWithOtherArguments() throws IOException {
+        Path file = tempDir.resolve("access.log");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add(LINE.replace("08:05:32", String.format("%02d:05:32", i % 24)).strip());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        run(List.of(file), new Arguments());
+
+        Arguments filtered = Arguments.parse(new String[] {"--from", "2015-05-17T12:00:00+00:00"});
+        LogStatistics expected = new LogAnalyzer().getStats(lines.stream(), filtered);
+        assertEquals(expected.totalRequests(), run(List.of(file), filtered).totalRequests());
+    }
+
+    private LogStatistics run(List<Path> files, Arguments arguments) {
+        return new IncrementalLogReader(new MappedLogReader(), new CheckpointStore(tempDir.resolve("state/checkpoint")))
+            .read(files, arguments, RequestLine.REQUEST).statistics();
+    }
+
+    /**
+     * Меняет статусы во всех строках после первых {@link CheckpointStore#HEAD_LENGTH} байт, не меняя длину файла.
+     */
+    private static void overwriteStatuses(Path file, String status) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            for (int i = text.indexOf("\" 304 ", CheckpointStore.HEAD_LENGTH); i >= 0; i = text.indexOf("\" 304 ", i + 1)) {
+                raf.seek(i + 2);
+                raf.write(status.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,81 @@
+import backend.academy.stats.Ipv4Bitmap;
+import backend.academy.utils.IpAddresses;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Ipv4BitmapTest {
+
+    @Test
+    public void testArrayAndBitmapContainers() {
+        Ipv4Bitmap bitmap = new Ipv4Bitmap();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int dense = 0x0A000000 | random.nextInt(1 << 16);
+            int sparse = random.nextInt();
+            bitmap.add(dense);
+            bitmap.add(sparse);
+            expected.add(dense);
+            expected.add(sparse);
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        expected.forEach(address -> assertTrue(bitmap.contains(address)));
+        assertFalse(bitmap.contains(0x0B000000));
+        Ipv4Bitmap restored = Ipv4Bitmap.restore(bitmap.state());
+        assertEquals(expected.size(), restored.cardinality());
+        expected.forEach(address -> assertTrue(restored.contains(address)));
+    }
+
+    @Test
+    public void testParseIpv4() {
+        assertEquals(0x5DB44703L, parseIpv4("93.180.71.3"));
+        assertEquals(0xFFFFFFFFL, parseIpv4("255.255.255.255"));
+        for (String invalid : new String[] {"256.1.1.1", "1.2.3", "1.2.3.4.5", "1..2.3", "2001:db8::1", "proxy.local"}) {
+            assertEquals(-1, parseIpv4(invalid), invalid);
+        }
+    }
+
+    @Test
+    public void testUnionAndIntersection() {
+        Ipv4Bitmap first = new Ipv4Bitmap();
+        Ipv4Bitmap second = new Ipv4Bitmap();
+        Set<Integer> firstSet = new HashSet<>();
+        Set<Integer> secondSet = new HashSet<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 30_000; i++) {
+            int address = 0xC0A80000 | random.nextInt(1 << 17);
+            if (random.nextBoolean()) {
+                first.add(address);
+                firstSet.add(address);
+            } else {
+                second.add(address);
+                secondSet.add(address);
+            }
+        }
+        Set<Integer> union = new HashSet<>(firstSet);
+        union.addAll(secondSet);
+        Set<Integer> intersection = new HashSet<>(firstSet);
+        intersection.retainAll(secondSet);
+
+        Ipv4Bitmap or = Ipv4Bitmap.or(first, second);
+        Ipv4Bitmap and = Ipv4Bitmap.and(first, second);
+
+        assertEquals(union.size(), or.cardinality());
+        assertEquals(intersection.size(), and.cardinality());
+        intersection.forEach(address -> assertTrue(and.contains(address)));
+        assertEquals(firstSet.size(), first.cardinality());
+        assertEquals(union.size(), first.merge(second).cardinality());
+    }
+
+    private static long parseIpv4(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return IpAddresses.parseIpv4(bytes, 0, bytes.length);
+    }
+}
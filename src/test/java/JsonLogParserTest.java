@@ -0,0 +1,117 @@
+import backend.academy.LogAnalyzer;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogStatistics;
+import backend.academy.utils.JsonLogParser;
+import backend.academy.utils.LogParser;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonLogParserTest {
+
+    private static final String TEXT_LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 304 0 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"";
+
+    private static final String JSON_LINE = "{\"remote_addr\":\"93.180.71.3\",\"remote_user\":\"-\","
+        + "\"time_local\":\"17/May/2015:08:05:32 +0000\",\"request\":\"GET /downloads/product_1 HTTP/1.1\","
+        + "\"status\":\"304\",\"body_bytes_sent\":\"0\",\"http_referer\":\"-\","
+        + "\"http_user_agent\":\"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"}";
+
+    @Test
+    public void testJsonLineMatchesTextLine() {
+        assertEquals(LogParser.parseLine(TEXT_LINE), parse(new JsonLogParser(null), JSON_LINE));
+    }
+
+    @Test
+    public void testCustomMappingAndUnknownFields() {
+        JsonLogParser parser = new JsonLogParser("remoteAddr=ip,timestamp=ts,agent=ua");
+        String line = "{\"ip\":\"10.0.0.1\",\"extra\":{\"nested\":[1,2,{\"a\":\"b\"}]},\"ts\":\"2015-05-17T10:05:32+02:00\","
+            + "\"request\":\"POST /api HTTP/2.0\",\"status\":201,\"body_bytes_sent\":512,\"ua\":\"curl/8.0\"}";
+
+        LogRecord logRecord = parse(parser, line);
+
+        assertEquals(new LogRecord("10.0.0.1", "-", LocalDateTime.of(2015, 5, 17, 8, 5, 32),
+            "POST /api HTTP/2.0", 201, 512, "curl/8.0"), logRecord);
+    }
+
+    @Test
+    public void testEpochTimestamp() {
+        LogRecord logRecord = parse(new JsonLogParser("timestamp=msec"),
+            "{\"remote_addr\":\"::1\",\"msec\":\"1431849932.123\",\"request\":\"GET / HTTP/1.1\",\"status\":\"200\"}");
+
+        assertEquals(LocalDateTime.of(2015, 5, 17, 8, 5, 32), logRecord.timestamp());
+        assertEquals(0, logRecord.bodyBytesSent());
+        assertEquals("", logRecord.agent());
+    }
+
+    @Test
+    public void testInvalidLinesAreSkipped() {
+        JsonLogParser parser = new JsonLogParser(null);
+
+        assertNull(parse(parser, "{\"remote_addr\":\"93.180.71.3\",\"request\":"));
+        assertNull(parse(parser, "not json"));
+        assertNull(parse(parser, JSON_LINE.replace("\"304\"", "\"abc\"")));
+        assertNull(parse(parser, JSON_LINE + " {}"));
+        assertNotNull(parse(parser, JSON_LINE));
+    }
+
+    @Test
+    public void testUnknownMappingField() {
+        assertThrows(IllegalArgumentException.class, () -> new JsonLogParser("address=ip"));
+    }
+
+    @Test
+    public void testGetStatsFromJsonLines() {
+        LogAnalyzer analyzer = new LogAnalyzer();
+
+        for (String logFormat : new String[] {"json", "auto"}) {
+            Arguments arguments = new Arguments();
+            arguments.logFormat(logFormat);
+            LogStatistics stats = analyzer.getStats(List.of(JSON_LINE, "", JSON_LINE.replace("304", "200")).stream(),
+                arguments);
+
+            assertEquals(2, stats.totalRequests());
+            assertEquals(1L, stats.statuses().get(304));
+        }
+    }
+
+    @Test
+    public void testInvalidTimestampsAreSkipped() {
+        JsonLogParser parser = new JsonLogParser("timestamp=msec");
+
+        assertNull(parse(new JsonLogParser(null), JSON_LINE.replace("17/May/2015:08:05:32 +0000", "not a date")));
+        assertNull(parse(new JsonLogParser(null), JSON_LINE.replace("17/May/2015", "32/Foo/2015")));
+        assertNull(parse(parser, "{\"remote_addr\":\"::1\",\"msec\":\"1" + "0".repeat(30)
+            + "\",\"request\":\"GET / HTTP/1.1\",\"status\":\"200\"}"));
+    }
+
+    @Test
+    public void testLargeBodyBytesAreCounted() {
+        String large = JSON_LINE.replace("\"body_bytes_sent\":\"0\"", "\"body_bytes_sent\":\"99999999999\"");
+        String invalid = JSON_LINE.replace("17/May/2015:08:05:32 +0000", "not a date");
+        Arguments arguments = new Arguments();
+        arguments.logFormat("json");
+
+        LogStatistics stats = new LogAnalyzer().getStats(List.of(large, invalid, JSON_LINE).stream(), arguments);
+
+        assertEquals(2, stats.totalRequests());
+        assertEquals(99_999_999_999.0 / 2, stats.avgResponseSize(), 0.001);
+        arguments.filterField("path");
+        arguments.filterValue("product_2");
+        assertEquals(1, new LogAnalyzer().getStats(List.of(large, JSON_LINE.replace("product_1", "product_2")).stream(),
+            arguments).totalRequests());
+        assertNull(parse(new JsonLogParser(null), large));
+        assertNull(parse(new JsonLogParser(null), JSON_LINE.replace("\"0\"", "\"1" + "0".repeat(20) + "\"")));
+    }
+
+    private static LogRecord parse(JsonLogParser parser, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,108 @@
+import backend.academy.stats.KllSketch;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KllSketchTest {
+
+    @Test
+    public void testExactForSmallInput() {
+        KllSketch sketch = new KllSketch();
+        long[] values = new Random(1).longs(KllSketch.EXACT_CAPACITY, 0, 1_000_000).toArray();
+        Arrays.stream(values).forEach(sketch::add);
+        Arrays.sort(values);
+
+        for (double quantile : new double[] {0.01, 0.5, 0.9, 0.95, 0.999, 1}) {
+            assertEquals(values[(int) Math.ceil(quantile * values.length) - 1], sketch.quantile(quantile));
+        }
+    }
+
+    @Test
+    public void testRankErrorAndBoundedMemory() {
+        int count = 2_000_000;
+        KllSketch[] parts = new KllSketch[8];
+        Arrays.setAll(parts, i -> new KllSketch());
+        Random random = new Random(2);
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (long) Math.abs(random.nextGaussian() * 10_000);
+            parts[i % parts.length].add(values[i]);
+        }
+        KllSketch merged = parts[0];
+        for (int i = 1; i < parts.length; i++) {
+            merged.merge(parts[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(count, merged.count());
+        assertEquals(values[0], merged.min());
+        assertEquals(values[count - 1], merged.max());
+        assertTrue(merged.state().levels().length < 20);
+        assertTrue(Arrays.stream(merged.state().levels()).mapToInt(level -> level.length).sum()
+            <= KllSketch.EXACT_CAPACITY);
+        for (double quantile : new double[] {0.5, 0.9, 0.95, 0.99, 0.999}) {
+            long estimate = merged.quantile(quantile);
+            double rank = (double) upperBound(values, estimate) / count;
+            assertEquals(quantile, rank, 0.0165, "квантиль " + quantile);
+        }
+    }
+
+    @Test
+    public void testStateRoundTrip() {
+        KllSketch sketch = new KllSketch();
+        new Random(3).longs(50_000, 0, 100_000).forEach(sketch::add);
+
+        KllSketch restored = KllSketch.restore(sketch.state());
+
+        assertEquals(sketch.count(), restored.count());
+        assertEquals(sketch.quantile(0.95), restored.quantile(0.95));
+        restored.add(5);
+        assertEquals(sketch.count() + 1, restored.count());
+    }
+
+    private static int upperBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index < sorted.length && sorted[index] == value) {
+            index++;
+        }
+        return index;
+    }
+
+    @Test
+    public void testMergeIntoEmptySketchWithEmptyMiddleLevel() {
+        KllSketch deep = new KllSketch();
+        for (long value = 0; value < 100_000; value++) {
+            deep.add(value);
+        }
+        KllSketch.State state = deep.state();
+        assertTrue(Arrays.stream(state.levels()).anyMatch(level -> level.length == 0), "no empty level");
+
+        KllSketch merged = new KllSketch().merge(deep);
+
+        assertEquals(deep.count(), merged.count());
+        assertEquals(deep.quantile(0.5), merged.quantile(0.5), 100_000 * 0.02);
+    }
+
+    @Test
+    public void testAddAfterRestoreWithEmptyLevel() {
+        KllSketch sketch = new KllSketch();
+        for (long value = 0; value < 8065; value++) {
+            sketch.add(value);
+        }
+        KllSketch.State state = sketch.state();
+        assertTrue(Arrays.stream(state.levels()).anyMatch(level -> level.length == 0), "no empty level");
+
+        KllSketch restored = KllSketch.restore(state);
+        for (long value = 8065; value < 20_000; value++) {
+            restored.add(value);
+        }
+
+        assertEquals(20_000, restored.count());
+        assertEquals(19_999, restored.quantile(1));
+    }
+}
@@ -1,21 +1,30 @@
 import backend.academy.LogAnalyzer;
+import backend.academy.config.Config;
 import backend.academy.dto.Arguments;
 import backend.academy.dto.LogRecord;
 import backend.academy.dto.LogStatistics;
 import backend.academy.exceptions.NoFoundDataException;
 import backend.academy.utils.LogParser;
+import backend.academy.utils.ReportFormatter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LogAnalyzerTest {
 
@@ -228,4 +237,141 @@ public class LogAnalyzerTest {
         });
     }
 
+    @Test
+    public void testGetStats_DateAndFieldFilters() {
+        List<String> logLines = Arrays.asList(
+            "188.138.60.101 - - [16/May/2015:08:05:25 +0000] \"GET /downloads/product_2 HTTP/1.1\" 304 0 \"-\" \"Debian APT-HTTP/1.3 (0.9.7.9)\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET /downloads/product_1 HTTP/1.1\" 404 340 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"",
+            "46.4.66.76 - - [17/May/2015:08:05:02 +0000] \"HEAD /downloads/product_1 HTTP/1.1\" 304 100 \"-\" \"Debian APT-HTTP/1.3 (1.0.1ubuntu2)\""
+        );
+
+        for (String parser : List.of("bytes", "regex")) {
+            Arguments arguments = Arguments.parse(new String[] {"--from", "2015-05-17T00:00:00+00:00",
+                "--filter-field", "method", "--filter-value", "^GET$", "--parser", parser});
+
+            LogStatistics stats = analyzer.getStats(logLines.stream(), arguments);
+
+            assertEquals(1, stats.totalRequests());
+            assertEquals(Map.of("93.180.71.3", 1L), stats.ipAddresses());
+        }
+    }
+
+    @Test
+    public void testLoadLogsFromFile_AutoDetectFormat() {
+        Arguments arguments = new Arguments();
+        arguments.path("logs/test/2023/test.txt");
+        arguments.logFormat("auto");
+
+        LogStatistics stats = analyzer.loadLogsFromFile(arguments);
+
+        assertEquals(12L, stats.totalRequests());
+    }
+
+    @Test
+    public void testPercentilesOption() {
+        List<String> lines = new ArrayList<>();
+        for (int size = 1; size <= 1000; size++) {
+            lines.add("93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 200 "
+                + size + " \"-\" \"Debian\"");
+        }
+        Arguments arguments = Arguments.parse(new String[] {"--percentiles", "50, 99.9"});
+
+        LogStatistics stats = analyzer.getStats(lines.stream(), arguments);
+
+        assertEquals(Map.of(50.0, 500.0, 99.9, 999.0), stats.responseSizePercentiles());
+        assertEquals(950.0, stats.responseSizePercentile95(), 0.001);
+        String report = ReportFormatter.format(stats, arguments);
+        assertTrue(report.contains(String.format("| 50-й персентиль размера | %.2f b", 500.0)), report);
+        assertTrue(report.contains(String.format("| 99.9-й персентиль размера | %.2f b", 999.0)), report);
+        assertThrows(IllegalArgumentException.class, () -> Arguments.parse(new String[] {"--percentiles", "101"}));
+    }
+
+    @Test
+    public void testHllPrecisionOption() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            lines.add("10.0.0." + i % 100 + " - - [" + (17 + i % 2) + "/May/2015:08:05:32 +0000] \"GET /downloads/product_"
+                + i % 3 + " HTTP/1.1\" 200 490 \"-\" \"Agent " + i % 7 + "\"");
+        }
+        Arguments arguments = Arguments.parse(new String[] {"--hll-precision", "14"});
+
+        LogStatistics stats = analyzer.getStats(lines.stream(), arguments);
+
+        assertEquals(100, stats.uniqueIpAddresses(), 2);
+        assertEquals(7, stats.uniqueAgents());
+        assertEquals(Set.of("17/May/2015", "18/May/2015"), stats.uniqueIpAddressesPerDay().keySet());
+        stats.uniqueIpAddressesPerDay().values().forEach(count -> assertEquals(50, count, 2));
+        assertEquals(100, stats.uniqueVisitorsPerResource().get("GET /downloads/product_0 HTTP/1.1"), 2);
+        String report = ReportFormatter.format(stats, arguments);
+        assertTrue(report.contains("| Уникальных IP-адресов   | ~" + stats.uniqueIpAddresses()), report);
+        assertThrows(IllegalArgumentException.class, () -> Arguments.parse(new String[] {"--hll-precision", "3"}));
+    }
+
+    @Test
+    public void testIpBitmapsOption() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String address = i % 2 == 0 ? "10.0.0." + i % 100 : "2001:db8::" + i % 100;
+            lines.add(address + " - - [" + (17 + i % 3) + "/May/2015:08:05:32 +0000] \"GET /downloads/product_"
+                + i % 2 + " HTTP/1.1\" 200 490 \"-\" \"Debian\"");
+        }
+        Arguments arguments = Arguments.parse(new String[] {"--ip-bitmaps", "resource"});
+
+        LogStatistics stats = analyzer.getStats(lines.stream(), arguments);
+
+        assertEquals(50, stats.uniqueIpv4Addresses());
+        assertEquals(Map.of("17/May/2015", 50L, "18/May/2015", 50L, "19/May/2015", 50L), stats.uniqueIpv4PerDay());
+        assertEquals(50, stats.ipv4SeenOnAllDays());
+        assertEquals(Map.of("GET /downloads/product_0 HTTP/1.1", 50L), stats.uniqueIpv4PerResource());
+        String report = ReportFormatter.format(stats, arguments);
+        assertTrue(report.contains("| Уникальных IPv4         | 50"), report);
+        assertThrows(IllegalArgumentException.class, () -> Arguments.parse(new String[] {"--ip-bitmaps", "hour"}));
+    }
+
+    @Test
+    public void testTopKOption() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int resource = i % 10 == 0 ? i : i % 3;
+            lines.add("10.0.0." + i % 7 + " - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_" + resource
+                + " HTTP/1.1\" 200 490 \"-\" \"Agent " + i % 2 + "\"");
+        }
+        Arguments arguments = Arguments.parse(new String[] {"--top-k", "20"});
+
+        LogStatistics stats = analyzer.getStats(lines.stream(), arguments);
+
+        assertTrue(stats.resources().size() <= 20);
+        long count = stats.resources().get("GET /downloads/product_1 HTTP/1.1");
+        long error = stats.resourceErrors().get("GET /downloads/product_1 HTTP/1.1");
+        assertTrue(count - error <= 300 && 300 <= count, count + " - " + error);
+        assertEquals(Map.of("Agent 0", 500L, "Agent 1", 500L), stats.agents());
+        String report = ReportFormatter.format(stats, arguments);
+        assertTrue(report.contains("#### Топ-15 агентов по количеству запросов"), report);
+        assertThrows(IllegalArgumentException.class, () -> Arguments.parse(new String[] {"--top-k", "10"}));
+    }
+
+    @Test
+    public void testFollowUsesBoundedCounters() {
+        assertEquals(Config.FOLLOW_TOP_K, Arguments.parse(new String[] {"--follow"}).topK());
+        assertEquals(50, Arguments.parse(new String[] {"--top-k", "50", "--follow"}).topK());
+        assertEquals(0, Arguments.parse(new String[] {}).topK());
+    }
+
+    @Test
+    public void testLoadLogsFromLargeFile(@TempDir Path tempDir) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            lines.add("10.0." + i % 7 + "." + i % 200 + " - - [17/May/2015:08:05:32 +0000] "
+                + "\"GET /downloads/product_1 HTTP/1.1\" 200 " + i + " \"-\" \"Debian\"");
+        }
+        Path file = tempDir.resolve("access.log");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        Arguments arguments = new Arguments();
+        arguments.path(file.toString());
+
+        LogStatistics stats = analyzer.loadLogsFromFile(arguments);
+
+        assertEquals(20_000, stats.totalRequests());
+        assertEquals(19_000, stats.responseSizePercentile95(), 20_000 * 0.02);
+    }
 }
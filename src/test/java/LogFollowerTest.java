@@ -0,0 +1,83 @@
+import backend.academy.dto.Arguments;
+import backend.academy.stats.StatisticsSink;
+import backend.academy.utils.LogFollower;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class LogFollowerTest {
+
+    private static final String LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 304 0 \"-\" \"Debian\"\n";
+
+    private final BlockingQueue<Integer> reports = new LinkedBlockingQueue<>();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testAppendRotationAndTruncation() throws Exception {
+        Path file = tempDir.resolve("access.log");
+        Files.writeString(file, LINE.repeat(100));
+        LogFollower follower = new LogFollower(List.of(file), new Arguments(), new StatisticsSink(),
+            Duration.ofMillis(20), Duration.ofMillis(20));
+        Thread thread = Thread.ofPlatform().start(() -> {
+            try {
+                follower.run(stats -> reports.add(stats.totalRequests()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            awaitTotal(100);
+
+            append(file, LINE.repeat(50) + LINE.substring(0, 40));
+            awaitTotal(150);
+            append(file, LINE.substring(40));
+            awaitTotal(151);
+
+            append(file, LINE.repeat(10));
+            Files.move(file, tempDir.resolve("access.log.1"));
+            Files.writeString(file, LINE.repeat(20));
+            awaitTotal(181);
+
+            Files.writeString(file, "", StandardOpenOption.TRUNCATE_EXISTING);
+            Files.writeString(file, LINE.repeat(5), StandardOpenOption.APPEND);
+            awaitTotal(186);
+        } finally {
+            follower.stop();
+            thread.join();
+        }
+    }
+
+    private void awaitTotal(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Integer total = null;
+        while (System.nanoTime() < deadline) {
+            total = reports.poll(100, TimeUnit.MILLISECONDS);
+            if (total != null && total == expected) {
+                return;
+            }
+            if (total != null && total > expected) {
+                break;
+            }
+        }
+        fail("Ожидалось " + expected + " записей, последний отчет: " + total);
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
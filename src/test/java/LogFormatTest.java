@@ -0,0 +1,85 @@
+import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogRecordView;
+import backend.academy.utils.LogFormat;
+import backend.academy.utils.LogFormatRegistry;
+import backend.academy.utils.LogParser;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogFormatTest {
+
+    private static final String NGINX_LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET /downloads/product_1 HTTP/1.1\" 404 340 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"";
+
+    private static final String NGINX_REFERER_LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 200 612 \"https://example.com/\" \"Mozilla/5.0\"";
+
+    private static final String APACHE_LINE =
+        "127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 -";
+
+    @Test
+    public void testNginxFormatMatchesRegexParser() {
+        assertEquals(LogParser.parseLine(NGINX_LINE), tokenize(LogFormatRegistry.get("nginx"), NGINX_LINE));
+    }
+
+    @Test
+    public void testNginxFormatAcceptsReferer() {
+        LogRecord logRecord = tokenize(LogFormatRegistry.get("nginx"), NGINX_REFERER_LINE);
+
+        assertEquals("GET / HTTP/1.1", logRecord.request());
+        assertEquals(612, logRecord.bodyBytesSent());
+        assertEquals("Mozilla/5.0", logRecord.agent());
+    }
+
+    @Test
+    public void testApacheCommonFormat() {
+        LogRecord logRecord = tokenize(LogFormatRegistry.get("apache"), APACHE_LINE);
+
+        assertEquals("127.0.0.1", logRecord.remoteAddr());
+        assertEquals("frank", logRecord.remoteUser());
+        assertEquals(LocalDateTime.of(2000, 10, 10, 20, 55, 36), logRecord.timestamp());
+        assertEquals(200, logRecord.status());
+        assertEquals(0, logRecord.bodyBytesSent());
+        assertEquals("", logRecord.agent());
+    }
+
+    @Test
+    public void testCustomFormat() {
+        LogFormat format = LogFormatRegistry.resolve("$remote_addr [$time_local] $status \"$request\" $request_time");
+
+        LogRecord logRecord = tokenize(format, "10.0.0.1 [17/May/2015:08:05:11 +0000] 503 \"POST /api HTTP/2.0\" 0.120");
+
+        assertEquals("10.0.0.1", logRecord.remoteAddr());
+        assertEquals("POST /api HTTP/2.0", logRecord.request());
+        assertEquals(503, logRecord.status());
+    }
+
+    @Test
+    public void testInvalidFormats() {
+        assertThrows(IllegalArgumentException.class, () -> LogFormatRegistry.resolve("unknown"));
+        assertThrows(IllegalArgumentException.class, () -> LogFormat.compile("bad", "$remote_addr$status"));
+        assertThrows(IllegalArgumentException.class, () -> LogFormat.compile("bad", "$remote_addr $status"));
+    }
+
+    @Test
+    public void testDetect() {
+        byte[] nginx = (NGINX_LINE + "\n" + NGINX_REFERER_LINE + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] apache = (APACHE_LINE + "\r\n" + APACHE_LINE).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("nginx", LogFormatRegistry.detect(nginx, 0, nginx.length).name());
+        assertEquals("apache", LogFormatRegistry.detect(apache, 0, apache.length).name());
+        assertFalse(LogFormatRegistry.get("apache").tokenize(nginx, 0, NGINX_LINE.length(), new LogRecordView()));
+    }
+
+    private LogRecord tokenize(LogFormat format, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        LogRecordView view = new LogRecordView();
+        assertTrue(format.tokenize(bytes, 0, bytes.length, view), line);
+        return view.toRecord();
+    }
+}
@@ -0,0 +1,48 @@
+import backend.academy.stats.LogLinearHistogram;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogLinearHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram(3);
+        for (long value = 1; value <= 1000; value++) {
+            histogram.add(value);
+        }
+
+        assertEquals(500, histogram.percentile(50));
+        assertEquals(950, histogram.percentile(95));
+        assertEquals(999, histogram.percentile(99.9));
+        assertEquals(1, histogram.min());
+        assertEquals(1000, histogram.max());
+        assertEquals(500.5, histogram.mean(), 1e-9);
+        assertEquals(Math.sqrt((1000.0 * 1000 - 1) / 12), histogram.stdDev(), 1e-6);
+    }
+
+    @Test
+    public void testRelativeErrorAndMerge() {
+        Random random = new Random(4);
+        long[] values = new long[200_000];
+        LogLinearHistogram[] days = {new LogLinearHistogram(3), new LogLinearHistogram(3)};
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            days[i % 2].add(values[i]);
+        }
+        LogLinearHistogram merged = LogLinearHistogram.restore(days[0].state()).merge(days[1]);
+        Arrays.sort(values);
+
+        assertEquals(values.length, merged.count());
+        assertEquals(values[values.length - 1], merged.max());
+        for (double percentile : new double[] {1, 50, 90, 99, 99.99}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = merged.percentile(percentile);
+            assertTrue(estimate >= exact && estimate - exact <= exact / 1000, percentile + ": " + estimate);
+        }
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(new LogLinearHistogram(2)));
+    }
+}
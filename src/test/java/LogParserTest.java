@@ -1,10 +1,16 @@
 import backend.academy.config.Config;
 import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogRecordView;
+import backend.academy.utils.ByteLogParser;
 import backend.academy.utils.LogParser;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LogParserTest {
 
@@ -28,5 +34,57 @@ public class LogParserTest {
         assertEquals(340, record.bodyBytesSent());
         assertEquals("Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)", record.agent());
     }
-}
 
+    @Test
+    public void testByteParserMatchesRegexParser() {
+        List<String> logLines = List.of(
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET /downloads/product_1 HTTP/1.1\" 404 340 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET /downloads/product_1 HTTP/1.1\" 404 340 \"-\" \"Debian\"\n",
+            "93.180.71.3 - admin [17/May/2015:08:05:11 +0000] \"GET /a\" b\" HTTP/1.1\" 200 0 \"-\" \"Агент \"x\"\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 200 0 \"-\" \"\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET /] \"x HTTP/1.1\" 200 00012 \"-\" \"curl\" trailing"
+        );
+
+        for (String line : logLines) {
+            LogRecord expected = LogParser.parseLine(line);
+            assertNotNull(expected, line);
+            assertEquals(expected, ByteLogParser.parseLine(line), line);
+        }
+    }
+
+    @Test
+    public void testByteParserRejectsLinesRejectedByRegex() {
+        List<String> logLines = List.of(
+            "",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 404 340 \"http://ref\" \"curl\"",
+            "93.180.71.3 -  - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 404 340 \"-\" \"curl\"",
+            " 93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 404 340 \"-\" \"curl\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 40 340 \"-\" \"curl\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 4040 340 \"-\" \"curl\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 404 - \"-\" \"curl\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 404 340 \"-\" \"curl",
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET / HTTP/1.1\" 404 340 \"-\" \"cu\nrl\"",
+            "93.180.71.3 - - [17/May/2015:08:05:11\n+0000] \"GET / HTTP/1.1\" 404 340 \"-\" \"curl\""
+        );
+
+        for (String line : logLines) {
+            assertNull(LogParser.parseLine(line), line);
+            assertNull(ByteLogParser.parseLine(line), line);
+        }
+    }
+
+    @Test
+    public void testRecordViewDecodesFieldsLazily() {
+        String logLine =
+            "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET /downloads/product_1 HTTP/1.1\" 404 340 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"";
+        byte[] line = ("prefix " + logLine).getBytes(StandardCharsets.UTF_8);
+        LogRecordView view = new LogRecordView();
+
+        assertTrue(ByteLogParser.tokenize(line, "prefix ".length(), line.length, view));
+
+        assertEquals(LogParser.parseLine(logLine), view.toRecord());
+        assertEquals("GET", view.getFieldValue(LogRecordView.fieldCode("method")).toString());
+        assertEquals("404", view.getFieldValue(LogRecordView.fieldCode("status")).toString());
+        assertNull(view.getFieldValue(LogRecordView.fieldCode("referer")));
+    }
+}
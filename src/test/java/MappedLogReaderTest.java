@@ -0,0 +1,177 @@
+import backend.academy.LogAnalyzer;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogStatistics;
+import backend.academy.stats.StatisticsSink;
+import backend.academy.utils.MappedLogReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MappedLogReaderTest {
+
+    private static final String[] PATHS = {"/downloads/product_1", "/downloads/product_2", "/index.html"};
+
+    private static final int[] STATUSES = {200, 304, 404};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testChunkedReadMatchesSequential() throws IOException {
+        List<String> lines = generateLines(3000);
+        Path file = tempDir.resolve("access.log");
+        Files.writeString(file, String.join("\r\n", lines) + "\n", StandardCharsets.UTF_8);
+        Arguments arguments = Arguments.parse(new String[] {"--from", "2015-05-17T00:00:00+00:00"});
+
+        LogStatistics expected = new LogAnalyzer().getStats(lines.stream(), arguments);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long chunkSize : new long[] {1, 1000, 64 * 1024, MappedLogReader.DEFAULT_CHUNK_SIZE}) {
+                LogStatistics actual = new MappedLogReader(pool, chunkSize)
+                    .read(file, arguments, StatisticsSink::new).statistics();
+
+                assertEquals(expected.totalRequests(), actual.totalRequests());
+                assertEquals(expected.resources(), actual.resources());
+                assertEquals(expected.statuses(), actual.statuses());
+                assertEquals(expected.ipAddresses(), actual.ipAddresses());
+                assertEquals(expected.countRequestsPerDay(), actual.countRequestsPerDay());
+                assertEquals(expected.avgResponseSize(), actual.avgResponseSize(), 1e-9);
+                assertEquals(expected.responseSizePercentile95(), actual.responseSizePercentile95(), 1e-9);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadFilesInParallel() throws IOException {
+        List<String> lines = generateLines(2000);
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Path file = tempDir.resolve("access.log." + i);
+            Files.write(file, lines.subList(i * 250, (i + 1) * 250), StandardCharsets.UTF_8);
+            files.add(file);
+        }
+        files.add(Files.createFile(tempDir.resolve("access.log.empty")));
+        Arguments arguments = Arguments.parse(new String[] {"--threads", "3"});
+
+        LogStatistics expected = new LogAnalyzer().getStats(lines.stream(), arguments);
+        LogStatistics actual;
+        try (ForkJoinPool pool = new ForkJoinPool(arguments.threads())) {
+            actual = new MappedLogReader(pool, MappedLogReader.DEFAULT_CHUNK_SIZE)
+                .read(files, arguments, StatisticsSink::new).statistics();
+        }
+
+        assertEquals(expected.totalRequests(), actual.totalRequests());
+        assertEquals(expected.resources(), actual.resources());
+        assertEquals(expected.ipAddresses(), actual.ipAddresses());
+        assertEquals(expected.countRequestsPerDay(), actual.countRequestsPerDay());
+        assertEquals(expected.responseSizePercentile95(), actual.responseSizePercentile95(), 1e-9);
+    }
+
+    @Test
+    public void testSeekToTimeWindowInOrderedFile() throws IOException {
+        List<String> lines = orderedLines(20_000);
+        lines.set(100, lines.get(3 * 3600 + 300));
+        Path file = tempDir.resolve("access.log");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        String[] window = {"--from", "2015-05-17T03:00:00+00:00", "--to", "2015-05-17T03:10:00+00:00"};
+
+        Arguments strict = Arguments.parse(concat(window, "--time-tolerance", "0"));
+        assertEquals(599, new MappedLogReader().read(file, strict, StatisticsSink::new).recordCount(),
+            "запись вне порядка в начале файла пропускается вместе с остальным началом");
+        Arguments tolerant = Arguments.parse(concat(window, "--time-tolerance", "86400"));
+        assertEquals(600, new MappedLogReader().read(file, tolerant, StatisticsSink::new).recordCount());
+    }
+
+    @Test
+    public void testUnorderedFileIsReadCompletely() throws IOException {
+        List<String> lines = orderedLines(20_000);
+        Collections.shuffle(lines, new Random(3));
+        Path file = tempDir.resolve("access.log");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        Arguments arguments = Arguments.parse(new String[] {"--from", "2015-05-17T03:00:00+00:00",
+            "--to", "2015-05-17T03:10:00+00:00", "--time-tolerance", "0"});
+
+        assertEquals(599, new MappedLogReader().read(file, arguments, StatisticsSink::new).recordCount());
+    }
+
+    @Test
+    public void testSeekInFilesOfDifferentFormats() throws IOException {
+        List<String> nginx = orderedLines(2000);
+        List<String> json = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            json.add(String.format("{\"remote_addr\":\"10.0.0.%d\",\"time_local\":\"17/May/2015:%02d:%02d:%02d +0000\","
+                + "\"request\":\"GET /index.html HTTP/1.1\",\"status\":\"200\",\"body_bytes_sent\":\"%d\"}",
+                i % 256, i / 3600, i / 60 % 60, i % 60, i));
+        }
+        Path jsonFile = tempDir.resolve("access.json");
+        Files.write(jsonFile, json, StandardCharsets.UTF_8);
+        Path nginxFile = tempDir.resolve("access.log");
+        Files.write(nginxFile, nginx, StandardCharsets.UTF_8);
+        Arguments arguments = Arguments.parse(new String[] {"--log-format", "auto",
+            "--from", "2015-05-16T23:00:00+00:00", "--threads", "1"});
+
+        try (ForkJoinPool pool = new ForkJoinPool(arguments.threads())) {
+            StatisticsSink sink = new MappedLogReader(pool, MappedLogReader.DEFAULT_CHUNK_SIZE)
+                .read(List.of(jsonFile, nginxFile), arguments, StatisticsSink::new);
+
+            assertEquals(4000, sink.recordCount(), "участок каждого файла ищется в его собственном формате");
+        }
+    }
+
+    @Test
+    public void testThreadsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> Arguments.parse(new String[] {"--threads", "0"}));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path file = Files.createFile(tempDir.resolve("empty.log"));
+
+        StatisticsSink sink = new MappedLogReader().read(file, new Arguments(), StatisticsSink::new);
+
+        assertEquals(0, sink.recordCount());
+    }
+
+    private static List<String> orderedLines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(String.format("10.0.0.%d - - [17/May/2015:%02d:%02d:%02d +0000] \"GET /index.html HTTP/1.1\" "
+                + "200 %d \"-\" \"agent\"", i % 256, i / 3600, i / 60 % 60, i % 60, i));
+        }
+        return lines;
+    }
+
+    private static String[] concat(String[] args, String... more) {
+        List<String> all = new ArrayList<>(List.of(args));
+        all.addAll(List.of(more));
+        return all.toArray(String[]::new);
+    }
+
+    private static List<String> generateLines(int count) {
+        Random random = new Random(7);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i % 97 == 0) {
+                lines.add("garbage line " + i);
+                continue;
+            }
+            lines.add(String.format("10.0.%d.%d - - [%02d/May/2015:%02d:%02d:%02d +0000] \"GET %s HTTP/1.1\" %d %d \"-\" \"agent-%d\"",
+                random.nextInt(4), random.nextInt(256), 16 + random.nextInt(3), random.nextInt(24), random.nextInt(60),
+                random.nextInt(60), PATHS[random.nextInt(PATHS.length)], STATUSES[random.nextInt(STATUSES.length)],
+                random.nextInt(100_000), random.nextInt(5)));
+        }
+        return lines;
+    }
+}
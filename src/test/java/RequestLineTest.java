@@ -0,0 +1,81 @@
+import backend.academy.LogAnalyzer;
+import backend.academy.dto.Arguments;
+import backend.academy.dto.LogRecord;
+import backend.academy.dto.LogRecordView;
+import backend.academy.dto.LogStatistics;
+import backend.academy.utils.ByteLogParser;
+import backend.academy.utils.LogParser;
+import backend.academy.utils.RequestLine;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestLineTest {
+
+    private static final String LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1?id=7&x=1 HTTP/1.1\" 304 0 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"";
+
+    @Test
+    public void testViewDecomposesRequest() {
+        LogRecordView view = new LogRecordView();
+        byte[] bytes = LINE.getBytes(StandardCharsets.UTF_8);
+        assertTrue(ByteLogParser.tokenize(bytes, 0, bytes.length, view));
+
+        assertEquals("GET", view.method());
+        assertEquals("/downloads/product_1", view.path());
+        assertEquals("id=7&x=1", view.query());
+        assertEquals("HTTP/1.1", view.protocol());
+        assertEquals("/downloads/product_1", view.getFieldValue(LogRecordView.fieldCode("path")).toString());
+    }
+
+    @Test
+    public void testRecordPartsMatchByteSplit() {
+        for (String request : new String[] {"GET /a HTTP/1.1", "GET /a?b=c HTTP/2.0", "GET /a", "GET", "",
+            "GET /a b?c HTTP/1.0", " /x", "POST /p?q", "GET /a?b?c HTTP/1.1", "GET  /x HTTP/1.1"}) {
+            byte[] bytes = request.getBytes(StandardCharsets.UTF_8);
+            int[] parts = new int[RequestLine.LENGTH];
+            RequestLine.split(bytes, 0, bytes.length, parts, 0);
+            for (int part : new int[] {RequestLine.METHOD, RequestLine.PATH, RequestLine.QUERY, RequestLine.PROTOCOL}) {
+                assertEquals(new String(bytes, parts[part], parts[part + 1] - parts[part], StandardCharsets.UTF_8),
+                    RequestLine.part(request, part), request + " #" + part);
+            }
+        }
+    }
+
+    @Test
+    public void testRecordFieldValues() {
+        LogRecord logRecord = LogParser.parseLine(LINE);
+
+        assertEquals("GET", logRecord.getFieldValue("method"));
+        assertEquals("/downloads/product_1", logRecord.getFieldValue("path"));
+        assertEquals("id=7&x=1", logRecord.getFieldValue("query"));
+        assertEquals("HTTP/1.1", logRecord.getFieldValue("protocol"));
+    }
+
+    @Test
+    public void testGroupByPathAndFilterByProtocol() {
+        List<String> lines = List.of(LINE,
+            LINE.replace("GET /downloads/product_1?id=7&x=1 HTTP/1.1", "HEAD /downloads/product_1 HTTP/2.0"),
+            LINE.replace("GET /downloads/product_1?id=7&x=1 HTTP/1.1", "GET /downloads/product_2 HTTP/1.0"));
+        LogAnalyzer analyzer = new LogAnalyzer();
+
+        for (String parser : new String[] {"bytes", "regex"}) {
+            LogStatistics stats = analyzer.getStats(lines.stream(),
+                Arguments.parse(new String[] {"--group-by", "path", "--parser", parser}));
+            assertEquals(Map.of("/downloads/product_1", 2L, "/downloads/product_2", 1L), stats.resources());
+
+            stats = analyzer.getStats(lines.stream(), Arguments.parse(new String[] {"--group-by", "method",
+                "--filter-field", "protocol", "--filter-value", "^HTTP/1", "--parser", parser}));
+            assertEquals(Map.of("GET", 2L), stats.resources());
+        }
+    }
+
+    @Test
+    public void testUnknownGroupBy() {
+        assertThrows(IllegalArgumentException.class, () -> RequestLine.partCode("host"));
+    }
+}
@@ -0,0 +1,64 @@
+import backend.academy.stats.SpaceSaving;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpaceSavingTest {
+
+    private static final int CAPACITY = 100;
+
+    @Test
+    public void testBoundsHoldForSkewedStream() {
+        Map<String, Long> exact = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        stream(new Random(3), 200_000, exact, summary);
+
+        assertBounds(exact, summary, 200_000);
+    }
+
+    @Test
+    public void testMergeAndRestoreKeepBounds() {
+        Map<String, Long> exact = new HashMap<>();
+        SpaceSaving first = new SpaceSaving(CAPACITY);
+        SpaceSaving second = new SpaceSaving(CAPACITY);
+        stream(new Random(5), 100_000, exact, first);
+        stream(new Random(6), 100_000, exact, second);
+
+        SpaceSaving merged = SpaceSaving.restore(first.state()).merge(second);
+
+        assertEquals(200_000, merged.total());
+        assertBounds(exact, merged, 200_000);
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(new SpaceSaving(CAPACITY + 1)));
+    }
+
+    /**
+     * Поток с распределением Ципфа по миллиону ресурсов: несколько частых и много редких.
+     */
+    private static void stream(Random random, int length, Map<String, Long> exact, SpaceSaving summary) {
+        for (int i = 0; i < length; i++) {
+            String key = "/resource/" + (int) Math.pow(1_000_000, random.nextDouble());
+            exact.merge(key, 1L, Long::sum);
+            summary.add(key);
+        }
+    }
+
+    private static void assertBounds(Map<String, Long> exact, SpaceSaving summary, long total) {
+        List<SpaceSaving.Entry> top = summary.top(15);
+        assertEquals(15, top.size());
+        for (SpaceSaving.Entry entry : top) {
+            long count = exact.getOrDefault(entry.key(), 0L);
+            assertTrue(entry.count() - entry.error() <= count && count <= entry.count(), entry + ": " + count);
+            assertTrue(entry.error() <= total / CAPACITY, entry.toString());
+        }
+        exact.forEach((key, count) -> {
+            if (count > total / CAPACITY) {
+                assertTrue(summary.top(CAPACITY).stream().anyMatch(entry -> entry.key().equals(key)), key);
+            }
+        });
+    }
+}
@@ -0,0 +1,97 @@
+import backend.academy.dto.LogRecordView;
+import backend.academy.dto.LogStatistics;
+import backend.academy.stats.StatisticsSink;
+import backend.academy.utils.ByteLogParser;
+import backend.academy.utils.LogEventSink;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatisticsSinkTest {
+
+    private static final String LOG_LINE =
+        "93.180.71.3 - - [17/May/2015:08:05:11 +0000] \"GET /downloads/product_1 HTTP/1.1\" 404 340 \"-\" \"Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)\"";
+
+    @Test
+    public void testParseEmitsFieldEvents() {
+        List<String> events = new ArrayList<>();
+        LogEventSink sink = new LogEventSink() {
+            @Override
+            public void onAddress(byte[] line, int from, int to) {
+                events.add("address=" + new String(line, from, to - from, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onTimestamp(long epochSecond) {
+                events.add("timestamp=" + epochSecond);
+            }
+
+            @Override
+            public void onRequest(byte[] line, int from, int to) {
+                events.add("request=" + new String(line, from, to - from, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onStatus(int status) {
+                events.add("status=" + status);
+            }
+
+            @Override
+            public void onBytes(long bodyBytesSent) {
+                events.add("bytes=" + bodyBytesSent);
+            }
+
+            @Override
+            public void onAgent(byte[] line, int from, int to) {
+                events.add("agent=" + new String(line, from, to - from, StandardCharsets.UTF_8));
+            }
+        };
+        byte[] line = LOG_LINE.getBytes(StandardCharsets.UTF_8);
+        byte[] malformed = "93.180.71.3 - - [17/May/2015:08:05:11 +0000]".getBytes(StandardCharsets.UTF_8);
+        LogRecordView view = new LogRecordView();
+
+        assertFalse(ByteLogParser.parse(malformed, 0, malformed.length, view, sink));
+        assertTrue(ByteLogParser.parse(line, 0, line.length, view, sink));
+
+        assertEquals(List.of(
+            "address=93.180.71.3",
+            "timestamp=1431849911",
+            "request=GET /downloads/product_1 HTTP/1.1",
+            "status=404",
+            "bytes=340",
+            "agent=Debian APT-HTTP/1.3 (0.8.16~exp12ubuntu10.21)"
+        ), events);
+    }
+
+    @Test
+    public void testStatisticsSinkAggregatesEvents() {
+        byte[] line = LOG_LINE.getBytes(StandardCharsets.UTF_8);
+        LogRecordView view = new LogRecordView();
+        StatisticsSink sink = new StatisticsSink();
+
+        ByteLogParser.parse(line, 0, line.length, view, sink);
+        ByteLogParser.parse(line, 0, line.length, view, sink);
+        LogStatistics stats = sink.statistics();
+
+        assertEquals(2, stats.totalRequests());
+        assertEquals(Map.of("GET /downloads/product_1 HTTP/1.1", 2L), stats.resources());
+        assertEquals(Map.of(404, 2L), stats.statuses());
+        assertEquals(Map.of("17/May/2015", 2L), stats.countRequestsPerDay());
+        assertEquals(340.0, stats.avgResponseSize(), 0.001);
+    }
+
+    @Test
+    public void testLargeBodyBytesAreCounted() {
+        byte[] line = LOG_LINE.replace(" 340 ", " 5000000000 ").getBytes(StandardCharsets.UTF_8);
+        StatisticsSink sink = new StatisticsSink();
+
+        assertTrue(ByteLogParser.parse(line, 0, line.length, new LogRecordView(), sink));
+
+        assertEquals(5_000_000_000.0, sink.statistics().avgResponseSize(), 0.001);
+    }
+}
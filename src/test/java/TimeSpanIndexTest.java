@@ -0,0 +1,83 @@
+import backend.academy.dto.Arguments;
+import backend.academy.utils.TimeSpanIndex;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeSpanIndexTest {
+
+    private static final String FIRST =
+        "93.180.71.3 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 304 0 \"-\" \"Debian\"\n";
+
+    private static final String LAST =
+        "93.180.71.3 - - [18/May/2015:22:05:32 +0000] \"GET /downloads/product_1 HTTP/1.1\" 304 0 \"-\" \"Debian\"";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSpanFromFirstAndLastLines() throws IOException {
+        Path file = tempDir.resolve("access.log");
+        Files.writeString(file, "garbage\n" + FIRST.repeat(2000) + LAST);
+        TimeSpanIndex index = new TimeSpanIndex(new Arguments(), null);
+
+        assertTrue(index.mayContain(file, epoch("2015-05-18T00:00:00Z"), epoch("2015-05-18T01:00:00Z")));
+        assertTrue(index.mayContain(file, epoch("2015-05-18T22:08:00Z"), epoch("2015-05-19T00:00:00Z")),
+            "границы расширяются на допуск");
+        assertFalse(index.mayContain(file, epoch("2015-05-19T00:00:00Z"), Long.MAX_VALUE));
+        assertFalse(index.mayContain(file, Long.MIN_VALUE, epoch("2015-05-17T08:00:00Z")));
+    }
+
+    @Test
+    public void testSpanFromPathDate() throws IOException {
+        Path daily = write("logs/access-2024-05-17.gz", "");
+        Path monthly = write("logs/2024/05/access.gz", "");
+        Path yearly = write("logs/2023/access.gz", "");
+        Path undated = write("logs/access.gz", "");
+        TimeSpanIndex index = new TimeSpanIndex(new Arguments(), null);
+        long from = epoch("2024-05-20T00:00:00Z");
+        long to = epoch("2024-05-21T00:00:00Z");
+
+        assertFalse(index.mayContain(daily, from, to));
+        assertTrue(index.mayContain(daily, epoch("2024-05-18T12:00:00Z"), to), "допуск в сутки");
+        assertTrue(index.mayContain(monthly, from, to));
+        assertFalse(index.mayContain(yearly, from, to));
+        assertTrue(index.mayContain(undated, from, to));
+    }
+
+    @Test
+    public void testSpanIsCached() throws IOException {
+        Path file = tempDir.resolve("access.log");
+        Files.writeString(file, FIRST + LAST);
+        Path cacheFile = tempDir.resolve("cache/spans.json");
+        TimeSpanIndex index = new TimeSpanIndex(new Arguments(), cacheFile);
+        TimeSpanIndex.Span span = index.span(file);
+        index.save();
+
+        assertEquals(span, new TimeSpanIndex(new Arguments(), cacheFile).span(file));
+        Files.writeString(file, FIRST);
+        assertTrue(new TimeSpanIndex(new Arguments(), cacheFile).span(file).to() < span.to(),
+            "измененный файл измеряется заново");
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.getBytes());
+        }
+        return file;
+    }
+
+    private static long epoch(String dateTime) {
+        return OffsetDateTime.parse(dateTime).toEpochSecond();
+    }
+}
@@ -0,0 +1,65 @@
+import backend.academy.config.Config;
+import backend.academy.utils.TimestampDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TimestampDecoderTest {
+
+    @Test
+    public void testDecodeEpochSecond_MatchesFormatter() {
+        List<String> timestamps = List.of(
+            "17/May/2015:08:05:11 +0000",
+            "17/May/2015:08:05:11 +0300",
+            "01/Jan/2016:00:30:00 -0530",
+            "29/Feb/2024:23:59:59 +1400",
+            "31/Dec/1999:23:59:59 -1200"
+        );
+        TimestampDecoder decoder = new TimestampDecoder();
+
+        for (String timestamp : timestamps) {
+            byte[] bytes = timestamp.getBytes(StandardCharsets.US_ASCII);
+            long expected = OffsetDateTime.parse(timestamp, Config.LOG_FORMATTER).toEpochSecond();
+            assertEquals(expected, decoder.decodeEpochSecond(bytes, 0, bytes.length), timestamp);
+        }
+    }
+
+    @Test
+    public void testDecode_ReusesPreviousResult() {
+        byte[] line = "[17/May/2015:08:05:11 +0300]".getBytes(StandardCharsets.US_ASCII);
+        byte[] sameSecond = "x 17/May/2015:08:05:11 +0300".getBytes(StandardCharsets.US_ASCII);
+        TimestampDecoder decoder = new TimestampDecoder();
+
+        LocalDateTime first = decoder.decode(line, 1, line.length - 1);
+        LocalDateTime second = decoder.decode(sameSecond, 2, sameSecond.length);
+
+        assertEquals(LocalDateTime.of(2015, 5, 17, 5, 5, 11), first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testDayKey() {
+        TimestampDecoder decoder = new TimestampDecoder();
+        long epochSecond = LocalDateTime.of(2015, 5, 17, 23, 59, 59).toEpochSecond(ZoneOffset.UTC);
+
+        assertEquals("17/May/2015", decoder.dayKey(epochSecond));
+        assertSame(decoder.dayKey(epochSecond), decoder.dayKey(epochSecond - 60));
+        assertEquals("18/May/2015", decoder.dayKey(epochSecond + 1));
+    }
+
+    @Test
+    public void testDecode_Malformed() {
+        TimestampDecoder decoder = new TimestampDecoder();
+        for (String timestamp : List.of("17/Mai/2015:08:05:11 +0000", "17/May/2015 08:05:11 +0000", "17/May/2015")) {
+            byte[] bytes = timestamp.getBytes(StandardCharsets.US_ASCII);
+            assertThrows(DateTimeParseException.class, () -> decoder.decodeEpochSecond(bytes, 0, bytes.length));
+        }
+    }
+}
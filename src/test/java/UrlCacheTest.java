@@ -0,0 +1,161 @@
+import backend.academy.utils.UrlCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UrlCacheTest {
+
+    private final AtomicReference<byte[]> content = new AtomicReference<>();
+
+    private final List<Integer> statuses = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+
+    private URI url;
+
+    private UrlCache cache;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/access.log", this::serve);
+        server.start();
+        url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/access.log");
+        cache = new UrlCache(cacheDir, HttpClient.newHttpClient());
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testUnchangedResourceIsRevalidated() throws IOException {
+        content.set(lines(0, 20_000));
+
+        assertArrayEquals(content.get(), read());
+        long fullSize = sent.getAndSet(0);
+        assertArrayEquals(content.get(), read());
+
+        assertEquals(List.of(200, 304), statuses);
+        assertEquals(0, sent.get());
+        assertTrue(fullSize > 1_000_000);
+        try (var files = Files.list(cacheDir)) {
+            long compressed = files.filter(file -> file.toString().endsWith(".gz")).findFirst().orElseThrow().toFile()
+                .length();
+            assertTrue(compressed < fullSize / 4);
+        }
+    }
+
+    @Test
+    public void testAppendedBytesAreFetched() throws IOException {
+        content.set(lines(0, 20_000));
+        read();
+        byte[] grown = concat(content.get(), lines(20_000, 21_000));
+        content.set(grown);
+        sent.set(0);
+
+        assertArrayEquals(grown, read());
+        assertEquals(List.of(200, 206), statuses);
+        assertTrue(sent.get() < lines(20_000, 21_000).length + 8192);
+
+        assertArrayEquals(grown, read());
+        assertEquals(List.of(200, 206, 304), statuses);
+    }
+
+    @Test
+    public void testReplacedResourceIsDownloadedAgain() throws IOException {
+        content.set(lines(0, 20_000));
+        read();
+
+        byte[] rotated = lines(50_000, 75_000);
+        content.set(rotated);
+        assertArrayEquals(rotated, read());
+
+        byte[] truncated = lines(0, 10);
+        content.set(truncated);
+        assertArrayEquals(truncated, read());
+
+        assertEquals(List.of(200, 206, 200, 416, 200), statuses);
+    }
+
+    private byte[] read() throws IOException {
+        try (InputStream in = cache.open(url)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        byte[] body = content.get();
+        String etag = "\"" + Arrays.hashCode(body) + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        try (exchange) {
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, body, 0, 0);
+            } else if (range == null) {
+                respond(exchange, 200, body, 0, body.length);
+            } else {
+                int from = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+                if (from >= body.length) {
+                    respond(exchange, 416, body, 0, 0);
+                } else {
+                    exchange.getResponseHeaders().add("Content-Range",
+                        "bytes " + from + "-" + (body.length - 1) + "/" + body.length);
+                    respond(exchange, 206, body, from, body.length);
+                }
+            }
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body, int from, int to) throws IOException {
+        statuses.add(status);
+        sent.addAndGet(to - from);
+        exchange.sendResponseHeaders(status, to > from ? to - from : -1);
+        if (to > from) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body, from, to - from);
+            }
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static byte[] lines(int from, int to) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            builder.append("10.0.").append(i % 256).append(".1 - - [17/May/2015:08:05:32 +0000] \"GET /downloads/product_")
+                .append(i % 3).append(" HTTP/1.1\" 200 ").append(i).append(" \"-\" \"agent\"\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}